@@ -0,0 +1,55 @@
+package com.example.needcalculation.loadreplay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load generator for the calculate endpoint of a locally started service.
+ *
+ * Replays recorded NeedCalculationRequest traffic (one JSON request per line) or
+ * generates synthetic requests, in a closed loop or at an open-loop arrival rate,
+ * and reports throughput and HdrHistogram latency percentiles.
+ *
+ * <pre>
+ * ./gradlew :load-replay:run --args="--rate 200 --duration 60s --stores lognormal:500,1.0"
+ * ./gradlew :load-replay:run --args="--requests recorded.jsonl --concurrency 32"
+ * </pre>
+ */
+public final class LoadReplay {
+
+    private LoadReplay() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadReplayOptions options;
+        try {
+            options = LoadReplayOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadReplayOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        RequestSource requestSource = options.requests() != null
+                ? RequestSource.recorded(options.requests(), objectMapper)
+                : RequestSource.synthetic(options.products(), options.regions(), options.months(),
+                options.storeUniverse(), options.storeCounts(), objectMapper);
+
+        System.out.printf("Sending %s to %s with concurrency %d for %d s (+%d s warmup)%n",
+                options.rate() > 0 ? options.rate() + " requests/s" : "closed-loop requests",
+                options.url(), options.concurrency(),
+                options.duration().toSeconds(), options.warmup().toSeconds());
+
+        LoadReport report = new LoadRunner(options, requestSource).run();
+        report.print(System.out);
+
+        if (options.histogram() != null) {
+            report.writeHistogram(options.histogram());
+            System.out.println("Response time distribution written to " + options.histogram());
+        }
+        if (report.successfulRequests() == 0) {
+            System.exit(1);
+        }
+    }
+}
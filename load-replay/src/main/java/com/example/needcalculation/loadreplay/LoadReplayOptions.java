@@ -0,0 +1,135 @@
+package com.example.needcalculation.loadreplay;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line options of the load generator.
+ *
+ * @param url Base URL of the service
+ * @param requests JSONL recording to replay, or null for synthetic requests
+ * @param concurrency Maximum number of requests in flight
+ * @param rate Open-loop arrival rate in requests per second, 0 for a closed loop
+ * @param warmup Time during which requests are sent but not recorded
+ * @param duration Length of the measured phase
+ * @param storeCounts Stores per synthetic request
+ * @param storeUniverse Number of distinct synthetic store names
+ * @param products Products of synthetic requests
+ * @param regions Regions of synthetic stores
+ * @param months Months of synthetic requests, empty for the current month
+ * @param seed Seed of the request generator
+ * @param histogram File for the full response time distribution, or null
+ */
+public record LoadReplayOptions(String url, Path requests, int concurrency, double rate,
+                                Duration warmup, Duration duration,
+                                StoreCountDistribution storeCounts, int storeUniverse,
+                                List<String> products, List<String> regions, List<String> months,
+                                long seed, Path histogram) {
+
+    public static final String USAGE = """
+            Usage: load-replay [options]
+              --url <url>              service base URL (default http://localhost:8081)
+              --requests <file>        replay NeedCalculationRequest JSON lines from a file
+                                       (default: synthetic requests)
+              --concurrency <n>        requests in flight (default 16)
+              --rate <n>               open-loop arrivals per second, 0 = closed loop (default 0)
+              --warmup <duration>      unrecorded warmup, e.g. 10s (default 10s)
+              --duration <duration>    measured phase, e.g. 60s or 5m (default 60s)
+              --stores <distribution>  stores per synthetic request: fixed:100, uniform:10-1000
+                                       or lognormal:200,1.0 (default lognormal:100,1.0)
+              --store-universe <n>     distinct synthetic store names (default 10000)
+              --products <a,b,...>     synthetic products (default Bisleri-1L,Bisleri-0.5L,Bisleri-10L)
+              --regions <a,b,...>      synthetic regions (default: the eight forecast regions)
+              --months <a,b,...>       synthetic months (default: current month)
+              --seed <n>               generator seed (default 42)
+              --histogram <file>       write the response time distribution (.hgrm)
+            """;
+
+    /**
+     * Parse command line arguments
+     *
+     * @throws IllegalArgumentException for unknown options or invalid values
+     */
+    public static LoadReplayOptions parse(String[] args) {
+        String url = "http://localhost:8081";
+        Path requests = null;
+        int concurrency = 16;
+        double rate = 0;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        StoreCountDistribution storeCounts = StoreCountDistribution.parse("lognormal:100,1.0");
+        int storeUniverse = 10_000;
+        List<String> products = List.of("Bisleri-1L", "Bisleri-0.5L", "Bisleri-10L");
+        List<String> regions = List.of("extreme_north", "rajasthan", "north_central", "northeast",
+                "central", "west", "south", "southeast_coastal");
+        List<String> months = List.of();
+        long seed = 42;
+        Path histogram = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--url" -> url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "--requests" -> requests = Path.of(value);
+                case "--concurrency" -> concurrency = atLeast(1, Integer.parseInt(value), option);
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--warmup" -> warmup = parseDuration(value);
+                case "--duration" -> duration = parseDuration(value);
+                case "--stores" -> storeCounts = StoreCountDistribution.parse(value);
+                case "--store-universe" -> storeUniverse = atLeast(1, Integer.parseInt(value), option);
+                case "--products" -> products = list(value);
+                case "--regions" -> regions = list(value);
+                case "--months" -> months = list(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--histogram" -> histogram = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+
+        if (rate < 0 || duration.isZero() || duration.isNegative() || warmup.isNegative()) {
+            throw new IllegalArgumentException("Rate, warmup and duration must not be negative");
+        }
+        return new LoadReplayOptions(url, requests, concurrency, rate, warmup, duration, storeCounts,
+                storeUniverse, products, regions, months, seed, histogram);
+    }
+
+    /**
+     * Parse a duration such as 500ms, 30s, 5m or a plain number of seconds
+     */
+    static Duration parseDuration(String value) {
+        try {
+            if (value.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            }
+            if (value.endsWith("s")) {
+                return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+            }
+            if (value.endsWith("m")) {
+                return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+            }
+            return Duration.ofSeconds(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration: " + value, e);
+        }
+    }
+
+    private static int atLeast(int minimum, int value, String option) {
+        if (value < minimum) {
+            throw new IllegalArgumentException(option + " must be at least " + minimum);
+        }
+        return value;
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+}
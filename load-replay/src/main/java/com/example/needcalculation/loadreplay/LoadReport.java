@@ -0,0 +1,71 @@
+package com.example.needcalculation.loadreplay;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Result of the measured phase of a load run. Histogram values are microseconds.
+ *
+ * @param responseTimes Time from the scheduled start to the response (includes client-side queueing)
+ * @param serviceTimes Time from sending the request to the response
+ * @param errors Requests that failed or did not answer with 200
+ * @param unfinished Requests still queued or in flight when the run was stopped,
+ *                   not included in the percentiles
+ * @param duration Length of the measured phase
+ */
+public record LoadReport(Histogram responseTimes, Histogram serviceTimes, long errors, long unfinished,
+                         Duration duration) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    public long successfulRequests() {
+        return responseTimes.getTotalCount();
+    }
+
+    public double throughput() {
+        return successfulRequests() / (duration.toNanos() / 1e9);
+    }
+
+    /**
+     * Print throughput and latency percentiles in milliseconds
+     */
+    public void print(PrintStream out) {
+        out.printf("Requests:   %d ok, %d errors, %d unfinished in %.1f s%n",
+                successfulRequests(), errors, unfinished, duration.toNanos() / 1e9);
+        if (unfinished > 0) {
+            out.printf("Warning:    %d requests were still queued or in flight at the end and are missing "
+                    + "from the percentiles; the real tail is worse. Lower --rate or raise --concurrency.%n",
+                    unfinished);
+        }
+        out.printf("Throughput: %.1f requests/s%n", throughput());
+        printPercentiles(out, "Response time", responseTimes);
+        printPercentiles(out, "Service time", serviceTimes);
+    }
+
+    /**
+     * Write the full response time percentile distribution (.hgrm format, milliseconds),
+     * e.g. for the HdrHistogram plotter
+     */
+    public void writeHistogram(Path path) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+            responseTimes.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+
+    private static void printPercentiles(PrintStream out, String name, Histogram histogram) {
+        out.printf("%-14s", name + ":");
+        for (double percentile : PERCENTILES) {
+            out.printf(" p%s=%.2fms", format(percentile), histogram.getValueAtPercentile(percentile) / 1_000.0);
+        }
+        out.printf(" max=%.2fms%n", histogram.getMaxValue() / 1_000.0);
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.needcalculation.loadreplay;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends calculate requests and records their latency in HdrHistograms (microseconds).
+ *
+ * Closed loop (rate 0): every worker sends its next request as soon as the previous
+ * one completed, so throughput adapts to the service.
+ *
+ * Open loop (rate &gt; 0): requests are scheduled at a fixed arrival rate regardless of
+ * how fast the service answers; at most {@code concurrency} are in flight and the
+ * rest queue. Response time is measured from the scheduled start, so queueing caused
+ * by a slow service shows up in the percentiles instead of being hidden
+ * (coordinated omission). Service time is measured from the actual send.
+ *
+ * Requests started during the warmup are sent but not recorded. Measured requests
+ * that are still queued or in flight when the run is stopped are counted as unfinished;
+ * under overload these are the slowest requests, so a run with unfinished requests
+ * understates the tail percentiles.
+ */
+public class LoadRunner {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadReplayOptions options;
+    private final RequestSource requestSource;
+    private final HttpClient httpClient;
+    private final URI calculateUri;
+
+    private final Recorder responseTimes = new Recorder(3);
+    private final Recorder serviceTimes = new Recorder(3);
+    private final AtomicLong errors = new AtomicLong();
+
+    // Measured requests scheduled but not yet recorded as success or error
+    private final AtomicLong pending = new AtomicLong();
+
+    public LoadRunner(LoadReplayOptions options, RequestSource requestSource) {
+        this.options = options;
+        this.requestSource = requestSource;
+        this.calculateUri = URI.create(options.url() + "/api/v1/need-calculation/calculate");
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Run the warmup and the measured phase
+     *
+     * @return Latencies and counts of the measured phase
+     */
+    public LoadReport run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + options.warmup().toNanos();
+        long end = measureStart + options.duration().toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "load-replay-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (options.rate() > 0) {
+            runOpenLoop(workers, start, measureStart, end);
+        } else {
+            runClosedLoop(workers, measureStart, end);
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+            // Queued requests are dropped and in-flight requests interrupted; both stay pending
+            workers.shutdownNow();
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        Histogram responses = responseTimes.getIntervalHistogram();
+        Histogram services = serviceTimes.getIntervalHistogram();
+        return new LoadReport(responses, services, errors.get(), pending.get(), options.duration());
+    }
+
+    private void runOpenLoop(ExecutorService workers, long start, long measureStart, long end) {
+        double intervalNanos = 1e9 / options.rate();
+        Random random = new Random(options.seed());
+        for (long i = 0; ; i++) {
+            long scheduled = start + Math.round(i * intervalNanos);
+            if (scheduled >= end) {
+                return;
+            }
+            sleepUntil(scheduled);
+            byte[] body = requestSource.next(random);
+            boolean record = scheduled >= measureStart;
+            if (record) {
+                pending.incrementAndGet();
+            }
+            workers.execute(() -> send(body, scheduled, record));
+        }
+    }
+
+    private void runClosedLoop(ExecutorService workers, long measureStart, long end) {
+        for (int worker = 0; worker < options.concurrency(); worker++) {
+            long seed = options.seed() + worker;
+            workers.execute(() -> {
+                Random random = new Random(seed);
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    boolean record = now >= measureStart;
+                    if (record) {
+                        pending.incrementAndGet();
+                    }
+                    send(requestSource.next(random), now, record);
+                }
+            });
+        }
+    }
+
+    private void send(byte[] body, long scheduled, boolean record) {
+        HttpRequest request = HttpRequest.newBuilder(calculateUri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            long completed = System.nanoTime();
+            if (!record) {
+                return;
+            }
+            if (response.statusCode() != 200) {
+                errors.incrementAndGet();
+            } else {
+                responseTimes.recordValue((completed - scheduled) / 1_000);
+                serviceTimes.recordValue((completed - sent) / 1_000);
+            }
+            pending.decrementAndGet();
+        } catch (InterruptedException e) {
+            // Stopped at the end of the run, counted as unfinished
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (record) {
+                errors.incrementAndGet();
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
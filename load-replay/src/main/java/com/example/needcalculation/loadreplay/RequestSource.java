@@ -0,0 +1,111 @@
+package com.example.needcalculation.loadreplay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Supplies the JSON bodies of calculate requests, either replayed from a recording
+ * or generated synthetically.
+ */
+@FunctionalInterface
+public interface RequestSource {
+
+    /**
+     * @param random Random source of the calling thread
+     * @return Serialized NeedCalculationRequest
+     */
+    byte[] next(Random random);
+
+    /**
+     * Replay recorded requests in file order, starting over at the end.
+     * The file holds one NeedCalculationRequest JSON object per line; lines without
+     * a productName and a stores array (or that are not JSON) are skipped.
+     *
+     * @param path JSONL recording
+     * @param objectMapper Mapper used to parse and re-serialize the lines
+     * @return Source cycling over the recorded requests
+     */
+    static RequestSource recorded(Path path, ObjectMapper objectMapper) throws IOException {
+        List<byte[]> bodies = new ArrayList<>();
+        int skipped = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode request = objectMapper.readTree(line);
+                    if (request.hasNonNull("productName") && request.path("stores").isArray()) {
+                        bodies.add(objectMapper.writeValueAsBytes(request));
+                    } else {
+                        skipped++;
+                    }
+                } catch (IOException e) {
+                    skipped++;
+                }
+            }
+        }
+
+        if (bodies.isEmpty()) {
+            throw new IllegalArgumentException("No calculate requests found in " + path
+                    + " (" + skipped + " lines skipped)");
+        }
+        System.out.printf("Loaded %d recorded requests from %s (%d lines skipped)%n", bodies.size(), path, skipped);
+
+        AtomicLong sequence = new AtomicLong();
+        return random -> bodies.get((int) (sequence.getAndIncrement() % bodies.size()));
+    }
+
+    /**
+     * Generate requests with random products, months and regions.
+     * Store names are drawn from str1..str{storeUniverse}, so unknown stores get their derived size.
+     *
+     * @param products Product names to choose from
+     * @param regions Regions to choose from
+     * @param months Months to choose from; empty uses the service's current month
+     * @param storeUniverse Number of distinct store names
+     * @param storeCounts Distribution of stores per request
+     * @param objectMapper Mapper used to serialize the requests
+     * @return Source of synthetic requests
+     */
+    static RequestSource synthetic(List<String> products, List<String> regions, List<String> months,
+                                   int storeUniverse, StoreCountDistribution storeCounts,
+                                   ObjectMapper objectMapper) {
+        return random -> {
+            ObjectNode request = objectMapper.createObjectNode();
+            request.put("productName", products.get(random.nextInt(products.size())));
+            if (!months.isEmpty()) {
+                request.put("month", months.get(random.nextInt(months.size())));
+            }
+
+            int storeCount = storeCounts.next(random);
+            ArrayNode stores = request.putArray("stores");
+            for (int i = 0; i < storeCount; i++) {
+                stores.addObject()
+                        .put("storeName", "str" + (1 + random.nextInt(storeUniverse)))
+                        .put("region", regions.get(random.nextInt(regions.size())));
+            }
+
+            try {
+                return objectMapper.writeValueAsBytes(request);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.needcalculation.loadreplay;
+
+import java.util.Random;
+
+/**
+ * Number of stores per synthetic calculate request.
+ *
+ * Specified on the command line as one of:
+ * <pre>
+ * fixed:100              always 100 stores
+ * uniform:10-1000        uniformly between 10 and 1000 stores (inclusive)
+ * lognormal:200,1.0      log-normal with median 200 and sigma 1.0, capped at 100000
+ * </pre>
+ */
+@FunctionalInterface
+public interface StoreCountDistribution {
+
+    int MAX_STORES = 100_000;
+
+    /**
+     * @param random Random source of the calling thread
+     * @return Number of stores, at least 1
+     */
+    int next(Random random);
+
+    /**
+     * Parse a distribution specification
+     *
+     * @param spec e.g. fixed:100, uniform:10-1000 or lognormal:200,1.0
+     * @return The distribution
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    static StoreCountDistribution parse(String spec) {
+        int separator = spec.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid store distribution: " + spec);
+        }
+        String type = spec.substring(0, separator);
+        String[] values = spec.substring(separator + 1).split("[-,]");
+
+        try {
+            switch (type) {
+                case "fixed" -> {
+                    int stores = positive(Integer.parseInt(values[0]), spec);
+                    return random -> stores;
+                }
+                case "uniform" -> {
+                    int min = positive(Integer.parseInt(values[0]), spec);
+                    int max = Integer.parseInt(values[1]);
+                    if (max < min) {
+                        throw new IllegalArgumentException("Invalid store distribution: " + spec);
+                    }
+                    return random -> min + random.nextInt(max - min + 1);
+                }
+                case "lognormal" -> {
+                    double median = positive(Integer.parseInt(values[0]), spec);
+                    double sigma = Double.parseDouble(values[1]);
+                    double mu = Math.log(median);
+                    return random -> (int) Math.max(1,
+                            Math.min(MAX_STORES, Math.round(Math.exp(mu + sigma * random.nextGaussian()))));
+                }
+                default -> throw new IllegalArgumentException("Unknown store distribution: " + type);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid store distribution: " + spec, e);
+        }
+    }
+
+    private static int positive(int value, String spec) {
+        if (value < 1 || value > MAX_STORES) {
+            throw new IllegalArgumentException("Invalid store distribution: " + spec);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.needcalculation.loadreplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the store count distributions and option parsing of the load generator
+ */
+class StoreCountDistributionTest {
+
+    @Test
+    void testFixedAndUniform() {
+        Random random = new Random(1);
+        assertEquals(100, StoreCountDistribution.parse("fixed:100").next(random));
+
+        StoreCountDistribution uniform = StoreCountDistribution.parse("uniform:10-20");
+        for (int i = 0; i < 1_000; i++) {
+            int stores = uniform.next(random);
+            assertTrue(stores >= 10 && stores <= 20, "stores " + stores);
+        }
+    }
+
+    @Test
+    void testLogNormalMedian() {
+        StoreCountDistribution logNormal = StoreCountDistribution.parse("lognormal:200,1.0");
+        Random random = new Random(7);
+        int[] samples = new int[10_001];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = logNormal.next(random);
+        }
+        Arrays.sort(samples);
+
+        assertEquals(200, samples[samples.length / 2], 20);
+        assertTrue(samples[0] >= 1);
+        assertTrue(samples[samples.length - 1] <= StoreCountDistribution.MAX_STORES);
+    }
+
+    @Test
+    void testInvalidSpecifications() {
+        for (String spec : new String[]{"100", "fixed:0", "uniform:20-10", "lognormal:200", "poisson:5"}) {
+            assertThrows(IllegalArgumentException.class, () -> StoreCountDistribution.parse(spec), spec);
+        }
+    }
+
+    @Test
+    void testOptionParsing() {
+        LoadReplayOptions options = LoadReplayOptions.parse(new String[]{
+                "--url", "http://localhost:9090/", "--rate", "250", "--duration", "2m", "--warmup", "500ms",
+                "--months", "May, June"});
+
+        assertEquals("http://localhost:9090", options.url());
+        assertEquals(250.0, options.rate());
+        assertEquals(Duration.ofMinutes(2), options.duration());
+        assertEquals(Duration.ofMillis(500), options.warmup());
+        assertEquals(List.of("May", "June"), options.months());
+        assertThrows(IllegalArgumentException.class, () -> LoadReplayOptions.parse(new String[]{"--rate"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadReplayOptions.parse(new String[]{"--qps", "5"}));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.needcalculation.benchmark;
+
+import com.example.needcalculation.model.Store;
+import com.example.needcalculation.service.CsvDataLoaderService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers shared by the benchmarks: wiring services without a Spring context
+ * and generating synthetic input.
+ */
+final class BenchmarkSupport {
+
+    static final String FORECAST_CSV = "src/main/resources/forecast_data.csv";
+
+    static final String[] MONTHS = {
+            "January", "February", "March", "April", "May", "June",
+            "July", "August", "September", "October", "November", "December"
+    };
+
+    static final String[] REGIONS = {
+            "extreme_north", "rajasthan", "north_central", "northeast",
+            "west", "south", "central", "southeast_coastal"
+    };
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Create a loader for the given CSV, configured like the @Value defaults
+     */
+    static CsvDataLoaderService csvDataLoader(Path csvFile) {
+        CsvDataLoaderService loader = new CsvDataLoaderService();
+        setField(loader, "csvFilePath", csvFile.toString());
+        setField(loader, "snapshotFilePath", "");
+        return loader;
+    }
+
+    /**
+     * Stores named str1..strN spread over all regions; str1..str10 have configured sizes
+     */
+    static List<Store> stores(int count) {
+        List<Store> stores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stores.add(new Store("str" + (i + 1), REGIONS[i % REGIONS.length], null));
+        }
+        return stores;
+    }
+
+    /**
+     * Write a forecast CSV with every month and region for as many products as needed
+     * to reach the requested number of rows
+     */
+    static Path syntheticCsv(int rows) throws IOException {
+        Path file = Files.createTempFile("forecast-benchmark", ".csv");
+        file.toFile().deleteOnExit();
+
+        int rowsPerProduct = MONTHS.length * REGIONS.length;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("month,region,product_name,base_need_xs\n");
+            int written = 0;
+            for (int product = 0; written < rows; product++) {
+                for (int cell = 0; cell < rowsPerProduct && written < rows; cell++, written++) {
+                    writer.write(MONTHS[cell / REGIONS.length]);
+                    writer.write(',');
+                    writer.write(REGIONS[cell % REGIONS.length]);
+                    writer.write(",Product-");
+                    writer.write(Integer.toString(product));
+                    writer.write(',');
+                    writer.write(Integer.toString(10 + (product * 31 + cell) % 500));
+                    writer.write('\n');
+                }
+            }
+        }
+        return file;
+    }
+
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.needcalculation.benchmark;
+
+import com.example.needcalculation.model.ForecastIndex;
+import com.example.needcalculation.service.CsvDataLoaderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of loading a large synthetic forecast CSV into the in-memory index
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class CsvLoadBenchmark {
+
+    @Param({"1000000"})
+    private int rows;
+
+    private Path csvFile;
+
+    @Setup(Level.Trial)
+    public void writeCsv() throws IOException {
+        csvFile = BenchmarkSupport.syntheticCsv(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCsv() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public ForecastIndex loadCsvData() {
+        CsvDataLoaderService loader = BenchmarkSupport.csvDataLoader(csvFile);
+        loader.loadCsvData();
+        return loader.getForecastIndex();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.needcalculation.benchmark;
+
+import com.example.needcalculation.entity.ForecastData;
+import com.example.needcalculation.model.ForecastIndex;
+import com.example.needcalculation.service.CsvDataLoaderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a composite forecast key compared to an id-based index lookup
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class KeyGenerationBenchmark {
+
+    private String productName = "Bisleri-1L";
+    private String month = "December";
+    private String region = "extreme_north";
+
+    private ForecastIndex forecastIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CsvDataLoaderService csvDataLoaderService = BenchmarkSupport.csvDataLoader(Path.of(BenchmarkSupport.FORECAST_CSV));
+        csvDataLoaderService.loadCsvData();
+        forecastIndex = csvDataLoaderService.getForecastIndex();
+    }
+
+    @Benchmark
+    public String generateKey() {
+        return ForecastData.generateKey(productName, month, region);
+    }
+
+    @Benchmark
+    public String generateKeyWithFormat() {
+        return String.format("%s#%s#%s", productName, month, region);
+    }
+
+    @Benchmark
+    public int indexLookupByName() {
+        return forecastIndex.baseNeed(productName, month, region);
+    }
+}
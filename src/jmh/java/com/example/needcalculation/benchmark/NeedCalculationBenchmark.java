@@ -0,0 +1,63 @@
+package com.example.needcalculation.benchmark;
+
+import com.example.needcalculation.dto.ColumnarNeedCalculationResponse;
+import com.example.needcalculation.dto.NeedCalculationRequest;
+import com.example.needcalculation.dto.NeedCalculationResponse;
+import com.example.needcalculation.service.CsvDataLoaderService;
+import com.example.needcalculation.service.NeedCalculationMetrics;
+import com.example.needcalculation.service.NeedCalculationService;
+import com.example.needcalculation.service.StoreConfigurationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a calculate request by store count, for the per-SKU and the columnar format
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class NeedCalculationBenchmark {
+
+    @Param({"1", "100", "10000", "100000"})
+    private int storeCount;
+
+    private NeedCalculationService needCalculationService;
+    private NeedCalculationRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CsvDataLoaderService csvDataLoaderService = BenchmarkSupport.csvDataLoader(Path.of(BenchmarkSupport.FORECAST_CSV));
+        csvDataLoaderService.loadCsvData();
+
+        StoreConfigurationService storeConfigurationService = new StoreConfigurationService();
+        storeConfigurationService.initializeStoreConfigurations();
+
+        needCalculationService = new NeedCalculationService(
+                csvDataLoaderService, storeConfigurationService, csvDataLoaderService,
+                new NeedCalculationMetrics(new SimpleMeterRegistry()));
+        BenchmarkSupport.setField(needCalculationService, "parallelThreshold", 2048);
+        needCalculationService.initializeCalculationPool();
+
+        request = new NeedCalculationRequest("Bisleri-1L", BenchmarkSupport.stores(storeCount), "December");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        needCalculationService.shutdownCalculationPool();
+    }
+
+    @Benchmark
+    public NeedCalculationResponse calculateNeeds() {
+        return needCalculationService.calculateNeeds(request);
+    }
+
+    @Benchmark
+    public ColumnarNeedCalculationResponse calculateColumnarNeeds() {
+        return needCalculationService.calculateColumnarNeeds(request);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.needcalculation.benchmark;
+
+import com.example.needcalculation.dto.ColumnarNeedCalculationResponse;
+import com.example.needcalculation.dto.NeedCalculationResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing a calculate response in the per-SKU and the columnar format
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int storeCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private NeedCalculationResponse perSkuResponse;
+    private ColumnarNeedCalculationResponse columnarResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Map<String, NeedCalculationResponse.SkuNeed>> needPerSKU = new ArrayList<>(storeCount);
+        List<String> storeNames = new ArrayList<>(storeCount);
+        int[] needs = new int[storeCount];
+
+        for (int i = 0; i < storeCount; i++) {
+            String storeName = "str" + (i + 1);
+            needs[i] = 50 + i % 300;
+            storeNames.add(storeName);
+            needPerSKU.add(Map.of("Bisleri-1L@" + storeName, new NeedCalculationResponse.SkuNeed(needs[i])));
+        }
+
+        perSkuResponse = new NeedCalculationResponse(needPerSKU, 1);
+        columnarResponse = new ColumnarNeedCalculationResponse("Bisleri-1L", "December", 1, storeNames, needs);
+    }
+
+    @Benchmark
+    public byte[] serializePerSku() throws Exception {
+        return objectMapper.writeValueAsBytes(perSkuResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeColumnar() throws Exception {
+        return objectMapper.writeValueAsBytes(columnarResponse);
+    }
+}
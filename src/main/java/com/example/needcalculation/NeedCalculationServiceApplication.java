@@ -2,6 +2,7 @@ package com.example.needcalculation;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application class.
@@ -9,8 +10,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - @Configuration: Marks this as a configuration class
  * - @EnableAutoConfiguration: Enables Spring Boot's auto-configuration
  * - @ComponentScan: Enables component scanning in this package and sub-packages
+ * @EnableScheduling: Runs background jobs such as polling the forecast CSV for changes
  */
 @SpringBootApplication
+@EnableScheduling
 public class NeedCalculationServiceApplication {
 
     public static void main(String[] args) {
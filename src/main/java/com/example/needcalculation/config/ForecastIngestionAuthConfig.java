@@ -0,0 +1,64 @@
+package com.example.needcalculation.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Protects the admin endpoints, including forecast ingestion, with a shared bearer token
+ * (Authorization: Bearer &lt;forecast.ingestion.token&gt;). Reloads, store configuration
+ * and cache operations change live state too; a reload would discard ingested deltas.
+ * Without a configured token the admin endpoints are disabled and answered with 403.
+ */
+@Configuration
+@Slf4j
+public class ForecastIngestionAuthConfig implements WebMvcConfigurer {
+
+    private static final String ADMIN_PATH = "/api/v1/need-calculation/admin/**";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Value("${forecast.ingestion.token:}")
+    private String token;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TokenInterceptor(token.getBytes(StandardCharsets.UTF_8)))
+                .addPathPatterns(ADMIN_PATH);
+    }
+
+    /**
+     * Rejects requests whose bearer token does not match, comparing in constant time
+     */
+    private record TokenInterceptor(byte[] token) implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                throws Exception {
+            if (token.length == 0) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN, "Admin endpoints are disabled");
+                return false;
+            }
+
+            String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (authorization == null || !authorization.startsWith(BEARER_PREFIX)
+                    || !MessageDigest.isEqual(token,
+                    authorization.substring(BEARER_PREFIX.length()).getBytes(StandardCharsets.UTF_8))) {
+                log.warn("Rejected admin request to {} from {}", request.getRequestURI(), request.getRemoteAddr());
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return false;
+            }
+            return true;
+        }
+    }
+}
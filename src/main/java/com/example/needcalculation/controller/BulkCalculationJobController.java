@@ -0,0 +1,147 @@
+package com.example.needcalculation.controller;
+
+import com.example.needcalculation.dto.BulkCalculationJobRequest;
+import com.example.needcalculation.dto.BulkCalculationJobStatus;
+import com.example.needcalculation.service.BulkCalculationJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * REST Controller for asynchronous bulk calculation jobs.
+ * A job is submitted, polled for progress and its gzip-compressed result file downloaded.
+ */
+@RestController
+@RequestMapping("/api/v1/need-calculation/jobs")
+@RequiredArgsConstructor
+@Slf4j
+public class BulkCalculationJobController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final BulkCalculationJobService bulkCalculationJobService;
+
+    /**
+     * Submit a bulk calculation job
+     *
+     * @param request Products, stores, months and result format (all optional)
+     * @return 202 with the job status and its URL in the Location header, 503 if the job queue is full
+     */
+    @PostMapping
+    public ResponseEntity<BulkCalculationJobStatus> submitJob(@Valid @RequestBody BulkCalculationJobRequest request) {
+        log.info("Received bulk calculation job request");
+
+        try {
+            BulkCalculationJobStatus status = bulkCalculationJobService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                            .path("/{jobId}").buildAndExpand(status.getJobId()).toUri())
+                    .body(status);
+
+        } catch (IllegalArgumentException e) {
+            // No products or stores, answered with 400 by the exception handler
+            throw e;
+        } catch (RejectedExecutionException e) {
+            log.warn("Bulk job queue is full, rejecting job");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            log.error("Error submitting bulk calculation job", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get the state and progress of a job
+     *
+     * @param jobId Job ID
+     * @return Job status, 404 if the job is unknown
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BulkCalculationJobStatus> getJobStatus(@PathVariable String jobId) {
+        return ResponseEntity.of(bulkCalculationJobService.getStatus(jobId));
+    }
+
+    /**
+     * Download the result file of a completed job.
+     * The file is copied to the response with FileChannel.transferTo.
+     *
+     * @param jobId Job ID
+     * @return Gzip-compressed NDJSON or CSV rows, 404 if the job is unknown, 409 if it is not completed
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<StreamingResponseBody> downloadResult(@PathVariable String jobId) {
+        Optional<BulkCalculationJobStatus> status = bulkCalculationJobService.getStatus(jobId);
+        if (status.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<Path> resultFile = bulkCalculationJobService.getResultFile(jobId);
+        if (resultFile.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        try {
+            Path path = resultFile.get();
+            long size = Files.size(path);
+
+            StreamingResponseBody body = outputStream -> {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    WritableByteChannel target = Channels.newChannel(outputStream);
+                    for (long position = 0; position < size; ) {
+                        position += channel.transferTo(position, size - position, target);
+                    }
+                }
+            };
+
+            String fileName = jobId + "." + status.get().getFormat().getFileExtension();
+            return ResponseEntity.ok()
+                    .contentType(GZIP)
+                    .contentLength(size)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(fileName).build().toString())
+                    .body(body);
+
+        } catch (Exception e) {
+            log.error("Error reading result of bulk job {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Delete a completed or failed job and its result file
+     *
+     * @param jobId Job ID
+     * @return 204, 404 if the job is unknown, 409 if it is still queued or running
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> deleteJob(@PathVariable String jobId) {
+        if (bulkCalculationJobService.getStatus(jobId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return bulkCalculationJobService.delete(jobId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.status(HttpStatus.CONFLICT).build();
+
+        } catch (Exception e) {
+            log.error("Error deleting bulk job {}", jobId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
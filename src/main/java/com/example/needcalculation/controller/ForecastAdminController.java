@@ -0,0 +1,97 @@
+package com.example.needcalculation.controller;
+
+import com.example.needcalculation.dto.ForecastDeltaRequest;
+import com.example.needcalculation.dto.ForecastDeltaResult;
+import com.example.needcalculation.dto.ForecastReloadResult;
+import com.example.needcalculation.service.CsvDataLoaderService;
+import com.example.needcalculation.service.ForecastSource;
+import com.example.needcalculation.service.NeedCalculationMetrics;
+import com.example.needcalculation.service.NeedCalculationResultCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST Controller for operational endpoints around the forecast data.
+ */
+@RestController
+@RequestMapping("/api/v1/need-calculation/admin")
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastAdminController {
+
+    private final CsvDataLoaderService csvDataLoaderService;
+    private final ForecastSource forecastSource;
+    private final NeedCalculationResultCache needCalculationResultCache;
+    private final NeedCalculationMetrics needCalculationMetrics;
+
+    /**
+     * Reload the forecast CSV and atomically publish the new snapshot.
+     * In-flight calculations finish on the snapshot they started with.
+     *
+     * @return Reload statistics (records, changed records, duration)
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<ForecastReloadResult> reloadForecastData() {
+        log.info("Received forecast reload request");
+        return ResponseEntity.ok(csvDataLoaderService.reloadCsvData());
+    }
+
+    /**
+     * Apply intra-day forecast corrections and publish them as a new snapshot version.
+     * Requires the ingestion bearer token.
+     *
+     * @param request Changed (product, month, region) cells; a row without base need removes the cell
+     * @return Delta statistics with the new forecast version, 409 if calculations do not read the CSV forecast
+     */
+    @PostMapping("/forecast/deltas")
+    public ResponseEntity<ForecastDeltaResult> applyForecastDelta(@Valid @RequestBody ForecastDeltaRequest request) {
+        log.info("Received forecast delta with {} rows", request.getRows().size());
+        if (forecastSource != csvDataLoaderService) {
+            log.warn("Rejecting forecast delta, the active forecast source is {}",
+                    forecastSource.getClass().getSimpleName());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(csvDataLoaderService.applyDelta(request));
+    }
+
+    /**
+     * Get statistics of the calculation result cache
+     *
+     * @return Hits, misses, hit rate, evictions, current size and coalesced requests
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        CacheStats stats = needCalculationResultCache.getStats();
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictions", stats.evictionCount());
+        statistics.put("evictedBytes", stats.evictionWeight());
+        statistics.put("entries", needCalculationResultCache.getEstimatedSize());
+        statistics.put("coalesced", needCalculationMetrics.getCoalescedCount());
+        statistics.put("coalesceTimeouts", needCalculationMetrics.getCoalesceTimeoutCount());
+        statistics.put("inFlight", needCalculationResultCache.getInFlightCount());
+
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Drop all cached calculation results
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearCache() {
+        log.info("Clearing calculation result cache");
+        needCalculationResultCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,22 +1,38 @@
 package com.example.needcalculation.controller;
 
+import com.example.needcalculation.dto.BatchNeedCalculationRequest;
+import com.example.needcalculation.dto.BatchNeedCalculationResponse;
+import com.example.needcalculation.dto.ColumnarNeedCalculationResponse;
+import com.example.needcalculation.dto.HorizonNeedCalculationRequest;
+import com.example.needcalculation.dto.HorizonNeedCalculationResponse;
 import com.example.needcalculation.dto.NeedCalculationRequest;
 import com.example.needcalculation.dto.NeedCalculationResponse;
+import com.example.needcalculation.enums.WireFormat;
+import com.example.needcalculation.exception.ShardUnavailableException;
+import com.example.needcalculation.service.ForecastCatalogService;
+import com.example.needcalculation.service.NeedCalculationResultCache;
 import com.example.needcalculation.service.NeedCalculationService;
+import com.example.needcalculation.service.ShardRouter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
  * REST Controller for need calculation endpoints.
  * This controller handles all HTTP requests related to need calculations.
+ * Bodies are JSON by default; CBOR and Smile are negotiated with Content-Type and Accept.
  *
  * @RestController: Combines @Controller and @ResponseBody
  * @RequestMapping: Base path for all endpoints in this controller
@@ -30,47 +46,297 @@ import java.util.Map;
 public class NeedCalculationController {
 
     private final NeedCalculationService needCalculationService;
+    private final NeedCalculationResultCache needCalculationResultCache;
+    private final ShardRouter shardRouter;
+    private final ForecastCatalogService forecastCatalogService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Main endpoint to calculate needs based on request
+     * Main endpoint to calculate needs based on request.
+     * Repeated requests are answered from the result cache with the already serialized response.
      *
      * @param request NeedCalculationRequest with product and stores
-     * @return NeedCalculationResponse with calculated needs
+     * @param diagnostics Whether to include missing forecasts and failed stores in the response
+     * @return NeedCalculationResponse JSON with calculated needs
      */
     @PostMapping("/calculate")
-    public ResponseEntity<NeedCalculationResponse> calculateNeeds(
-            @Valid @RequestBody NeedCalculationRequest request) {
+    public ResponseEntity<byte[]> calculateNeeds(
+            @Valid @RequestBody NeedCalculationRequest request,
+            @RequestParam(defaultValue = "false") boolean diagnostics) {
+
+        return calculateNeeds(request, diagnostics, WireFormat.JSON);
+    }
 
+    /**
+     * CBOR variant of the calculate endpoint, selected with Accept: application/cbor.
+     * The request body may be sent as JSON, CBOR or Smile.
+     *
+     * @param request NeedCalculationRequest with product and stores
+     * @param diagnostics Whether to include missing forecasts and failed stores in the response
+     * @return NeedCalculationResponse encoded as CBOR
+     */
+    @PostMapping(value = "/calculate", produces = WireFormat.CBOR_VALUE)
+    public ResponseEntity<byte[]> calculateNeedsCbor(
+            @Valid @RequestBody NeedCalculationRequest request,
+            @RequestParam(defaultValue = "false") boolean diagnostics) {
+        return calculateNeeds(request, diagnostics, WireFormat.CBOR);
+    }
+
+    /**
+     * Smile variant of the calculate endpoint, selected with Accept: application/x-jackson-smile.
+     * The request body may be sent as JSON, CBOR or Smile.
+     *
+     * @param request NeedCalculationRequest with product and stores
+     * @param diagnostics Whether to include missing forecasts and failed stores in the response
+     * @return NeedCalculationResponse encoded as Smile
+     */
+    @PostMapping(value = "/calculate", produces = WireFormat.SMILE_VALUE)
+    public ResponseEntity<byte[]> calculateNeedsSmile(
+            @Valid @RequestBody NeedCalculationRequest request,
+            @RequestParam(defaultValue = "false") boolean diagnostics) {
+        return calculateNeeds(request, diagnostics, WireFormat.SMILE);
+    }
+
+    private ResponseEntity<byte[]> calculateNeeds(NeedCalculationRequest request, boolean diagnostics,
+                                                  WireFormat format) {
         log.info("Received need calculation request for product: {}",
                 request.getProductName());
 
         try {
-            NeedCalculationResponse response = needCalculationService.calculateNeeds(request);
-            return ResponseEntity.ok(response);
+            byte[] response = needCalculationResultCache.getOrCalculate(request, diagnostics, format);
+            return ResponseEntity.ok()
+                    .contentType(format.getMediaType())
+                    .body(response);
 
+        } catch (ShardUnavailableException e) {
+            // Answered with 502 by the exception handler
+            throw e;
         } catch (Exception e) {
             log.error("Error processing need calculation request", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Calculate the stores of this shard for a routing instance.
+     * The request is always calculated locally, uncached and with diagnostics,
+     * so forwarded requests are never routed again. Stores are calculated with the
+     * size the routing instance sent.
+     *
+     * @param request NeedCalculationRequest with stores of the regions owned by this shard
+     * @return NeedCalculationResponse with calculated needs and diagnostics
+     */
+    @PostMapping("/shard/calculate")
+    public ResponseEntity<NeedCalculationResponse> calculateShardNeeds(
+            @Valid @RequestBody NeedCalculationRequest request) {
+
+        log.debug("Received shard need calculation request for product: {} with {} stores",
+                request.getProductName(), request.getStores().size());
+
+        try {
+            return ResponseEntity.ok(needCalculationService.calculateForwardedNeeds(request));
+
+        } catch (Exception e) {
+            log.error("Error processing shard need calculation request", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Streaming variant of the calculate endpoint, selected with Accept: application/x-ndjson.
+     * Each SKU's need is written as one JSON line as soon as it is computed,
+     * e.g. {"Bisleri-1L@str1":{"need":100}}. Store lists above the parallel threshold
+     * are calculated on the pool first and then written, which still keeps only one
+     * int per store on the heap. Requests with stores of other shards are calculated
+     * completely before the stream starts, so a failing shard is answered with 502.
+     *
+     * @param request NeedCalculationRequest with product and stores
+     * @return Newline-delimited JSON stream of SKU needs
+     */
+    @PostMapping(value = "/calculate", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamNeeds(
+            @Valid @RequestBody NeedCalculationRequest request) {
+
+        log.info("Received streaming need calculation request for product: {}",
+                request.getProductName());
+
+        ColumnarNeedCalculationResponse routed;
+        try {
+            routed = shardRouter.isRemote(request) ? shardRouter.calculateColumnarNeeds(request) : null;
+        } catch (ShardUnavailableException e) {
+            // The error body cannot be written as NDJSON
+            log.error("Error routing streaming need calculation request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null)) {
+                NeedCalculationService.SkuNeedWriter writer = (sku, need) -> {
+                    generator.writeStartObject();
+                    generator.writeObjectFieldStart(sku);
+                    generator.writeNumberField("need", need);
+                    generator.writeEndObject();
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                };
+                if (routed == null) {
+                    needCalculationService.streamNeeds(request, writer);
+                } else {
+                    for (int i = 0; i < routed.getNeeds().length; i++) {
+                        writer.write(routed.getProductName() + "@" + routed.getStoreNames().get(i),
+                                routed.getNeeds()[i]);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Error streaming need calculation response", e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Columnar variant of the calculate endpoint, selected with
+     * Accept: application/vnd.need-calculation.columnar+json.
+     * Returns the product once with store names and needs as parallel arrays,
+     * which is several times smaller than the per-SKU map format for large store lists.
+     *
+     * @param request NeedCalculationRequest with product and stores
+     * @return ColumnarNeedCalculationResponse with calculated needs
+     */
+    @PostMapping(value = "/calculate", produces = ColumnarNeedCalculationResponse.MEDIA_TYPE)
+    public ResponseEntity<ColumnarNeedCalculationResponse> calculateColumnarNeeds(
+            @Valid @RequestBody NeedCalculationRequest request) {
+
+        log.info("Received columnar need calculation request for product: {}",
+                request.getProductName());
+
+        try {
+            ColumnarNeedCalculationResponse response = shardRouter.calculateColumnarNeeds(request);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(ColumnarNeedCalculationResponse.MEDIA_TYPE))
+                    .body(response);
+
+        } catch (ShardUnavailableException e) {
+            // Answered with 502 by the exception handler
+            throw e;
+        } catch (Exception e) {
+            log.error("Error processing columnar need calculation request", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Calculate needs of a product for all registered stores of a region,
+     * or for the whole chain when no region is given
+     *
+     * @param productName Product name
+     * @param region Region name (optional, defaults to all registered stores)
+     * @param month Month to calculate (optional, defaults to the current month)
+     * @return ColumnarNeedCalculationResponse with the needs of the registered stores
+     */
+    @GetMapping("/calculate/region")
+    public ResponseEntity<ColumnarNeedCalculationResponse> calculateRegionNeeds(
+            @RequestParam String productName,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) String month) {
+
+        log.info("Received region need calculation request for product: {} in region: {}",
+                productName, region != null ? region : "all");
+
+        try {
+            return ResponseEntity.ok(shardRouter.calculateRegionNeeds(productName, region, month));
+
+        } catch (ShardUnavailableException e) {
+            // Answered with 502 by the exception handler
+            throw e;
+        } catch (Exception e) {
+            log.error("Error processing region need calculation request", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Batch endpoint to calculate needs for many products and stores in one call
+     *
+     * @param request BatchNeedCalculationRequest with products, stores and optional months
+     * @return BatchNeedCalculationResponse with needs grouped by product and month
+     */
+    @PostMapping("/calculate/batch")
+    public ResponseEntity<BatchNeedCalculationResponse> calculateBatchNeeds(
+            @Valid @RequestBody BatchNeedCalculationRequest request) {
+
+        log.info("Received batch need calculation request for {} products",
+                request.getProductNames().size());
+
+        try {
+            BatchNeedCalculationResponse response = shardRouter.calculateBatchNeeds(request);
+            return ResponseEntity.ok(response);
+
+        } catch (ShardUnavailableException e) {
+            // Answered with 502 by the exception handler
+            throw e;
+        } catch (Exception e) {
+            log.error("Error processing batch need calculation request", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Horizon endpoint to calculate needs of a product for several months in one call
+     *
+     * @param request HorizonNeedCalculationRequest with product, stores and months or a month range
+     * @return HorizonNeedCalculationResponse with one needs vector per SKU
+     */
+    @PostMapping("/calculate/horizon")
+    public ResponseEntity<HorizonNeedCalculationResponse> calculateHorizonNeeds(
+            @Valid @RequestBody HorizonNeedCalculationRequest request) {
+
+        log.info("Received horizon need calculation request for product: {}",
+                request.getProductName());
+
+        try {
+            HorizonNeedCalculationResponse response = shardRouter.calculateHorizonNeeds(request);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException | ShardUnavailableException e) {
+            // Invalid month range or failing shard, answered with 400 or 502 by the exception handler
+            throw e;
+        } catch (Exception e) {
+            log.error("Error processing horizon need calculation request", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Get available configuration data (months, regions, products)
-     * This is helpful for UI to show available options
+     * This is helpful for UI to show available options.
+     * The response is pre-serialized per forecast snapshot and carries an ETag;
+     * a request with a matching If-None-Match header gets 304 Not Modified.
      *
      * @return Map containing available months, regions, and products
      */
     @GetMapping("/config")
-    public ResponseEntity<Map<String, Object>> getConfiguration() {
-        Map<String, Object> config = new HashMap<>();
-
+    public ResponseEntity<byte[]> getConfiguration(WebRequest webRequest) {
         try {
-            config.put("availableMonths", needCalculationService.getAvailableMonths());
-            config.put("availableRegions", needCalculationService.getAvailableRegions());
-            config.put("availableProducts", needCalculationService.getAvailableProducts());
-            config.put("storeSizes", List.of("xs", "s", "m", "l", "xl"));
+            ForecastCatalogService.Catalog catalog = forecastCatalogService.getCatalog();
+
+            if (webRequest.checkNotModified(catalog.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(catalog.etag())
+                        .build();
+            }
 
-            return ResponseEntity.ok(config);
+            return ResponseEntity.ok()
+                    .eTag(catalog.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(catalog.body());
 
         } catch (Exception e) {
             log.error("Error fetching configuration", e);
@@ -105,8 +371,18 @@ public class NeedCalculationController {
 
         Map<String, String> endpoints = new HashMap<>();
         endpoints.put("calculate", "POST /api/v1/need-calculation/calculate");
+        endpoints.put("calculateBatch", "POST /api/v1/need-calculation/calculate/batch");
+        endpoints.put("calculateHorizon", "POST /api/v1/need-calculation/calculate/horizon");
+        endpoints.put("calculateRegion", "GET /api/v1/need-calculation/calculate/region");
+        endpoints.put("jobs", "POST /api/v1/need-calculation/jobs, GET|DELETE /api/v1/need-calculation/jobs/{jobId}");
+        endpoints.put("jobResult", "GET /api/v1/need-calculation/jobs/{jobId}/result");
+        endpoints.put("shardCalculate", "POST /api/v1/need-calculation/shard/calculate");
         endpoints.put("config", "GET /api/v1/need-calculation/config");
         endpoints.put("health", "GET /api/v1/need-calculation/health");
+        endpoints.put("reload", "POST /api/v1/need-calculation/admin/reload");
+        endpoints.put("cache", "GET|DELETE /api/v1/need-calculation/admin/cache");
+        endpoints.put("stores", "GET|POST|PUT /api/v1/need-calculation/admin/stores");
+        endpoints.put("storeMaster", "GET|POST|PUT /api/v1/need-calculation/admin/stores/master");
 
         info.put("endpoints", endpoints);
 
@@ -0,0 +1,109 @@
+package com.example.needcalculation.controller;
+
+import com.example.needcalculation.dto.StoreMasterRequest;
+import com.example.needcalculation.enums.StoreSize;
+import com.example.needcalculation.model.StoreMasterRecord;
+import com.example.needcalculation.service.StoreConfigurationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * REST Controller for managing store configurations in bulk.
+ * Request and response bodies map store names to size codes (xs, s, m, l, xl).
+ * The store master endpoints additionally register the region of each store.
+ */
+@RestController
+@RequestMapping("/api/v1/need-calculation/admin/stores")
+@RequiredArgsConstructor
+@Slf4j
+public class StoreConfigurationController {
+
+    private final StoreConfigurationService storeConfigurationService;
+
+    /**
+     * Get all store configurations
+     *
+     * @return Map of store name to size code
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, String>> getStoreConfigurations() {
+        Map<String, String> configurations = new TreeMap<>();
+        storeConfigurationService.getAllStoreConfigurations()
+                .forEach((storeName, size) -> configurations.put(storeName, size.getCode()));
+        return ResponseEntity.ok(configurations);
+    }
+
+    /**
+     * Add or update the given stores, keeping all others
+     *
+     * @param configurations Map of store name to size code
+     * @return Number of stores now configured
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Integer>> loadStoreConfigurations(
+            @RequestBody Map<String, String> configurations) {
+        storeConfigurationService.loadStoreConfigurations(toStoreSizes(configurations));
+        return ResponseEntity.ok(Map.of("stores", storeConfigurationService.getAllStoreConfigurations().size()));
+    }
+
+    /**
+     * Replace all store configurations with the given stores
+     *
+     * @param configurations Map of store name to size code
+     * @return Number of stores now configured
+     */
+    @PutMapping
+    public ResponseEntity<Map<String, Integer>> replaceStoreConfigurations(
+            @RequestBody Map<String, String> configurations) {
+        storeConfigurationService.replaceStoreConfigurations(toStoreSizes(configurations));
+        return ResponseEntity.ok(Map.of("stores", configurations.size()));
+    }
+
+    /**
+     * Get all registered stores with region and size
+     *
+     * @return Store master records ordered by store name
+     */
+    @GetMapping("/master")
+    public ResponseEntity<List<StoreMasterRecord>> getStoreMaster() {
+        return ResponseEntity.ok(storeConfigurationService.getStoreMaster());
+    }
+
+    /**
+     * Register the given stores with region and size, keeping all others
+     *
+     * @param request Stores to register
+     * @return Number of stores now registered
+     */
+    @PostMapping("/master")
+    public ResponseEntity<Map<String, Integer>> registerStores(@Valid @RequestBody StoreMasterRequest request) {
+        storeConfigurationService.registerStores(request.getStores());
+        return ResponseEntity.ok(Map.of("stores", storeConfigurationService.getRegisteredStores(null).size()));
+    }
+
+    /**
+     * Replace all registered stores with the given stores
+     *
+     * @param request Stores to register
+     * @return Number of stores now registered
+     */
+    @PutMapping("/master")
+    public ResponseEntity<Map<String, Integer>> replaceStores(@Valid @RequestBody StoreMasterRequest request) {
+        storeConfigurationService.replaceStores(request.getStores());
+        return ResponseEntity.ok(Map.of("stores", storeConfigurationService.getRegisteredStores(null).size()));
+    }
+
+    private static Map<String, StoreSize> toStoreSizes(Map<String, String> configurations) {
+        Map<String, StoreSize> sizes = new HashMap<>(configurations.size() * 2);
+        configurations.forEach((storeName, code) -> sizes.put(storeName, StoreSize.fromCode(code)));
+        return sizes;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.needcalculation.dto;
+
+import com.example.needcalculation.model.Store;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.Valid;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the batch need calculation request.
+ * Calculates needs for every product x store (x month) combination in one call.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchNeedCalculationRequest {
+
+    @NotEmpty(message = "At least one product is required")
+    private List<@NotBlank(message = "Product name is required") String> productNames;
+
+    @NotEmpty(message = "At least one store is required")
+    @Valid
+    private List<Store> stores;
+
+    /**
+     * Optional: Months for calculation. If not provided, current month will be used.
+     */
+    private List<String> months;
+}
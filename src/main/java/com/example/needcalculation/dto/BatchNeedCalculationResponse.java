@@ -0,0 +1,44 @@
+package com.example.needcalculation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the batch need calculation response.
+ * Store names are listed once; every needs array is aligned with them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchNeedCalculationResponse {
+
+    /**
+     * Store names in request order. Index i of every needs array belongs to storeNames[i].
+     */
+    private List<String> storeNames;
+
+    /**
+     * Version of the forecast snapshot the needs were calculated against (-1 if the source is unversioned)
+     */
+    private long forecastVersion;
+
+    /**
+     * One entry per product and month.
+     * Example: {"productName": "Bisleri-1L", "month": "May", "needs": [150, 200]}
+     */
+    private List<ProductNeeds> productNeeds;
+
+    /**
+     * Inner class representing the needs of one product in one month across all stores
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductNeeds {
+        private String productName;
+        private String month;
+        private int[] needs;
+    }
+}
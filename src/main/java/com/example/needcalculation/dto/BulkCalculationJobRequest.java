@@ -0,0 +1,42 @@
+package com.example.needcalculation.dto;
+
+import com.example.needcalculation.enums.BulkJobFormat;
+import com.example.needcalculation.model.Store;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for submitting a bulk calculation job:
+ * every product x store x month combination, written to a compressed result file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCalculationJobRequest {
+
+    /**
+     * Optional: Products to calculate. If not provided, all forecast products are used.
+     */
+    private List<@NotBlank(message = "Product name is required") String> productNames;
+
+    /**
+     * Optional: Stores to calculate. If not provided, all registered stores are used.
+     */
+    @Valid
+    private List<Store> stores;
+
+    /**
+     * Optional: Months for calculation. If not provided, current month will be used.
+     */
+    private List<String> months;
+
+    /**
+     * Optional: Result file format, NDJSON by default
+     */
+    private BulkJobFormat format;
+}
@@ -0,0 +1,68 @@
+package com.example.needcalculation.dto;
+
+import com.example.needcalculation.enums.BulkJobFormat;
+import com.example.needcalculation.enums.BulkJobState;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object describing a bulk calculation job and its progress.
+ * It doubles as the job's checkpoint: bytesWritten is the length of the result
+ * file after the last completed chunk.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(value = "progress", allowGetters = true)
+public class BulkCalculationJobStatus {
+
+    private String jobId;
+
+    private BulkJobState state;
+
+    private BulkJobFormat format;
+
+    private int productCount;
+
+    private int storeCount;
+
+    private int monthCount;
+
+    /**
+     * Stores calculated per chunk; fixed for the lifetime of the job
+     */
+    private int storesPerChunk;
+
+    private int totalChunks;
+
+    private int completedChunks;
+
+    private long rowsWritten;
+
+    private long bytesWritten;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    /**
+     * @return Completed share of the job, between 0 and 1
+     */
+    public double getProgress() {
+        return totalChunks == 0 ? 1.0 : (double) completedChunks / totalChunks;
+    }
+
+    public BulkCalculationJobStatus copy() {
+        return new BulkCalculationJobStatus(jobId, state, format, productCount, storeCount, monthCount,
+                storesPerChunk, totalChunks, completedChunks, rowsWritten, bytesWritten,
+                createdAt, updatedAt, error);
+    }
+}
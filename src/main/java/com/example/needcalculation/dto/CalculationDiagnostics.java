@@ -0,0 +1,56 @@
+package com.example.needcalculation.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Summary of what went wrong while calculating one request, collected in memory
+ * and logged once instead of once per store.
+ * Example: {"productFound": true, "monthFound": true, "missingForecastStores": 2,
+ * "missingRegions": ["unknown_region"], "failedStoreCount": 0, "failedStores": []}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalculationDiagnostics {
+
+    /**
+     * Maximum number of failed store names kept in {@link #failedStores}
+     */
+    public static final int MAX_FAILED_STORES = 20;
+
+    private String productName;
+    private String month;
+
+    private boolean productFound;
+    private boolean monthFound;
+
+    /**
+     * Number of stores without a forecast for the product, month and their region
+     */
+    private int missingForecastStores;
+
+    /**
+     * Store regions without forecast data, sorted
+     */
+    private List<String> missingRegions;
+
+    /**
+     * Number of stores whose calculation failed and returned zero
+     */
+    private int failedStoreCount;
+
+    /**
+     * Names of the first failed stores, at most {@link #MAX_FAILED_STORES}
+     */
+    private List<String> failedStores;
+
+    @JsonIgnore
+    public boolean hasIssues() {
+        return missingForecastStores > 0 || failedStoreCount > 0;
+    }
+}
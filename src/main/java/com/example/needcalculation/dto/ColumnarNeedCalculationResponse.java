@@ -0,0 +1,70 @@
+package com.example.needcalculation.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compact, columnar alternative to {@link NeedCalculationResponse}, selected with
+ * Accept: application/vnd.need-calculation.columnar+json.
+ * The product is listed once and the needs are a primitive array aligned with the store names.
+ * Example: {"productName":"Bisleri-1L","month":"May","forecastVersion":3,"storeNames":["str1","str2"],"needs":[150,200]}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonSerialize(using = ColumnarNeedCalculationResponse.Serializer.class)
+public class ColumnarNeedCalculationResponse {
+
+    public static final String MEDIA_TYPE = "application/vnd.need-calculation.columnar+json";
+
+    private String productName;
+
+    private String month;
+
+    /**
+     * Version of the forecast snapshot the needs were calculated against (-1 if the source is unversioned)
+     */
+    private long forecastVersion;
+
+    /**
+     * Store names in request order. needs[i] belongs to storeNames[i].
+     */
+    private List<String> storeNames;
+
+    private int[] needs;
+
+    /**
+     * Writes the response straight to the generator, without bean introspection
+     * or boxing of the needs
+     */
+    public static class Serializer extends JsonSerializer<ColumnarNeedCalculationResponse> {
+
+        @Override
+        public void serialize(ColumnarNeedCalculationResponse response, JsonGenerator generator,
+                              SerializerProvider serializers) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("productName", response.getProductName());
+            generator.writeStringField("month", response.getMonth());
+            generator.writeNumberField("forecastVersion", response.getForecastVersion());
+
+            generator.writeArrayFieldStart("storeNames");
+            for (String storeName : response.getStoreNames()) {
+                generator.writeString(storeName);
+            }
+            generator.writeEndArray();
+
+            int[] needs = response.getNeeds();
+            generator.writeFieldName("needs");
+            generator.writeArray(needs, 0, needs.length);
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.needcalculation.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for an incremental forecast update.
+ * Each row sets the base need of one (product, month, region) cell, or removes it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastDeltaRequest {
+
+    @NotEmpty(message = "At least one row is required")
+    @Valid
+    private List<Row> rows;
+
+    /**
+     * Whether rows may add regions that are not yet in the forecast
+     */
+    private boolean allowNewRegions;
+
+    public ForecastDeltaRequest(List<Row> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Inner class representing one changed forecast cell
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+
+        @NotBlank(message = "Month is required")
+        private String month;
+
+        @NotBlank(message = "Region is required")
+        private String region;
+
+        @NotBlank(message = "Product name is required")
+        private String productName;
+
+        /**
+         * New base need for an XS store; null removes the forecast
+         */
+        @Min(value = 0, message = "Base need must not be negative")
+        private Integer baseNeedXs;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.needcalculation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object describing the outcome of an applied forecast delta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastDeltaResult {
+
+    /**
+     * Version of the snapshot published with the delta
+     */
+    private long forecastVersion;
+
+    /**
+     * Number of delta rows received
+     */
+    private int rows;
+
+    /**
+     * Number of (product, month, region) records added, removed or changed
+     */
+    private int changedRecords;
+
+    /**
+     * Number of product partitions copied; all others are shared with the previous snapshot
+     */
+    private int copiedPartitions;
+
+    /**
+     * Time taken to apply and publish the delta
+     */
+    private long durationMs;
+}
@@ -0,0 +1,34 @@
+package com.example.needcalculation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object describing the outcome of a forecast data reload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastReloadResult {
+
+    /**
+     * Number of forecast records in the new snapshot
+     */
+    private int records;
+
+    /**
+     * Number of (product, month, region) records added, removed or changed
+     */
+    private int changedRecords;
+
+    /**
+     * Time taken to read, build and publish the new snapshot
+     */
+    private long durationMs;
+
+    /**
+     * Number of forecast deltas applied since the previous load that the reload replaced
+     */
+    private int discardedDeltas;
+}
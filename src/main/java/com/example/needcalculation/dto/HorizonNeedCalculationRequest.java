@@ -0,0 +1,44 @@
+package com.example.needcalculation.dto;
+
+import com.example.needcalculation.model.Store;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the multi-month (horizon) need calculation request.
+ * Months are given either as a list or as an inclusive range, e.g. October to March;
+ * a range may wrap around the end of the year.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorizonNeedCalculationRequest {
+
+    @NotBlank(message = "Product name is required")
+    private String productName;
+
+    @NotEmpty(message = "At least one store is required")
+    @Valid
+    private List<Store> stores;
+
+    /**
+     * Optional: Months for calculation. Ignored if a range is given.
+     */
+    private List<String> months;
+
+    /**
+     * Optional: First month of the range
+     */
+    private String fromMonth;
+
+    /**
+     * Optional: Last month of the range
+     */
+    private String toMonth;
+}
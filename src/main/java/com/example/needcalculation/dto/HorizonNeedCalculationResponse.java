@@ -0,0 +1,36 @@
+package com.example.needcalculation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the multi-month (horizon) need calculation response.
+ * Every SKU has one needs vector aligned with the months list.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorizonNeedCalculationResponse {
+
+    private String productName;
+
+    /**
+     * Version of the forecast snapshot the needs were calculated against (-1 if the source is unversioned)
+     */
+    private long forecastVersion;
+
+    /**
+     * Months in calculation order. Index i of every needs vector belongs to months[i].
+     */
+    private List<String> months;
+
+    /**
+     * List of SKU needs in store order, each a map with the SKU as key and the needs per month as value.
+     * Example: {"Bisleri-1L@str1": [100, 120, 90]}
+     */
+    private List<Map<String, int[]>> needPerSKU;
+}
@@ -1,5 +1,6 @@
 package com.example.needcalculation.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -21,6 +22,22 @@ public class NeedCalculationResponse {
      */
     private List<Map<String, SkuNeed>> needPerSKU;
 
+    /**
+     * Version of the forecast snapshot the needs were calculated against (-1 if the source is unversioned)
+     */
+    private long forecastVersion;
+
+    /**
+     * Missing forecasts and failed stores, only present when requested with ?diagnostics=true
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private CalculationDiagnostics diagnostics;
+
+    public NeedCalculationResponse(List<Map<String, SkuNeed>> needPerSKU, long forecastVersion) {
+        this.needPerSKU = needPerSKU;
+        this.forecastVersion = forecastVersion;
+    }
+
     /**
      * Inner class representing the need value for a SKU
      */
@@ -0,0 +1,23 @@
+package com.example.needcalculation.dto;
+
+import com.example.needcalculation.model.StoreMasterRecord;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for registering stores in the store master.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreMasterRequest {
+
+    @NotEmpty(message = "At least one store is required")
+    @Valid
+    private List<StoreMasterRecord> stores;
+}
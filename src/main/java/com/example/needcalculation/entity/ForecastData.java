@@ -49,7 +49,7 @@ public class ForecastData {
      * Helper method to generate the composite key
      */
     public static String generateKey(String productName, String month, String region) {
-        return String.format("%s#%s#%s", productName, month, region);
+        return productName + '#' + month + '#' + region;
     }
 
     /**
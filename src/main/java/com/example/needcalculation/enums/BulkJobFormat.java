@@ -0,0 +1,16 @@
+package com.example.needcalculation.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Row format of a bulk calculation result file. Files are always gzip-compressed.
+ */
+@Getter
+@AllArgsConstructor
+public enum BulkJobFormat {
+    NDJSON("ndjson.gz"),
+    CSV("csv.gz");
+
+    private final String fileExtension;
+}
@@ -0,0 +1,12 @@
+package com.example.needcalculation.enums;
+
+/**
+ * Lifecycle of a bulk calculation job.
+ * QUEUED and RUNNING jobs are resumed after a restart.
+ */
+public enum BulkJobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,42 @@
+package com.example.needcalculation.enums;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * Encodings of request and response bodies, selected with the Content-Type and Accept headers.
+ * JSON is the default; CBOR and Smile are binary encodings of the same document,
+ * cheaper to parse and generate and smaller on the wire for service-to-service callers.
+ */
+@Getter
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(MediaType.parseMediaType(WireFormat.SMILE_VALUE));
+
+    public static final String CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Create a mapper for this format with the modules and settings of the JSON mapper
+     *
+     * @param jsonMapper Application JSON mapper
+     * @return Mapper writing this format
+     */
+    public ObjectMapper mapper(ObjectMapper jsonMapper) {
+        return switch (this) {
+            case JSON -> jsonMapper;
+            case CBOR -> jsonMapper.copyWith(new CBORFactory());
+            case SMILE -> jsonMapper.copyWith(new SmileFactory());
+        };
+    }
+}
@@ -73,6 +73,27 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    /**
+     * Handle ShardUnavailableException
+     *
+     * @param ex ShardUnavailableException
+     * @return Error response
+     */
+    @ExceptionHandler(ShardUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleShardUnavailableException(
+            ShardUnavailableException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.BAD_GATEWAY.value());
+        response.put("error", "Shard Unavailable");
+        response.put("message", ex.getMessage());
+
+        log.error("Shard unavailable: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(response);
+    }
+
     /**
      * Handle all other exceptions
      *
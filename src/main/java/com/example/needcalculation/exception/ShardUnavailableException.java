@@ -0,0 +1,12 @@
+package com.example.needcalculation.exception;
+
+/**
+ * Thrown when a region shard cannot answer its part of a routed request
+ * and the response has no diagnostics to report its stores as failed.
+ */
+public class ShardUnavailableException extends RuntimeException {
+
+    public ShardUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,563 @@
+package com.example.needcalculation.model;
+
+import com.example.needcalculation.enums.StoreSize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable, dictionary-encoded read model of the forecast data.
+ *
+ * Products, months and regions are encoded as small int ids and the
+ * base need (XS) values are stored in a dense primitive cube indexed by
+ * (product, month, region). Cells without a forecast hold {@link #NO_FORECAST}.
+ *
+ * Lookups by id are plain array indexing; lookups by name only hash the
+ * (already cached) String hash codes and never allocate.
+ *
+ * The final need for every {@link StoreSize} is computed once when the index is
+ * created, so request-time calculation is a single int read without floating point.
+ *
+ * The cube is partitioned by product. {@link #withChanges(List)} derives a new index
+ * copy-on-write: only the partitions of changed products are copied and recomputed,
+ * all others are shared with the previous index. Published snapshots carry a version.
+ */
+public final class ForecastIndex {
+
+    /**
+     * Sentinel stored in cells that have no forecast row
+     */
+    public static final int NO_FORECAST = Integer.MIN_VALUE;
+
+    /**
+     * Id returned for unknown products, months or regions
+     */
+    public static final int UNKNOWN_ID = -1;
+
+    /**
+     * Version of indexes that were not published as a versioned snapshot
+     */
+    public static final long UNVERSIONED = -1;
+
+    private static final StoreSize[] SIZES = StoreSize.values();
+
+    private static final ForecastIndex EMPTY = new Builder().build();
+
+    private final String[] products;
+    private final String[] months;
+    private final String[] regions;
+
+    private final Map<String, Integer> productIds;
+    private final Map<String, Integer> monthIds;
+    private final Map<String, Integer> regionIds;
+
+    // Dense cube, one partition per product: baseNeeds[productId][monthId * regions + regionId]
+    private final int[][] baseNeeds;
+    // Final needs per store size: needs[productId][cell * SIZES.length + size ordinal]
+    private final int[][] needs;
+    private final int size;
+    private final long version;
+
+    private ForecastIndex(String[] products, String[] months, String[] regions,
+                          int[][] baseNeeds, int size) {
+        this(products, months, regions, dictionary(products), dictionary(months), dictionary(regions),
+                baseNeeds, sizedNeeds(baseNeeds, new int[baseNeeds.length][]), size, UNVERSIONED);
+    }
+
+    private ForecastIndex(String[] products, String[] months, String[] regions,
+                          Map<String, Integer> productIds, Map<String, Integer> monthIds,
+                          Map<String, Integer> regionIds, int[][] baseNeeds, int[][] needs,
+                          int size, long version) {
+        this.products = products;
+        this.months = months;
+        this.regions = regions;
+        this.productIds = productIds;
+        this.monthIds = monthIds;
+        this.regionIds = regionIds;
+        this.baseNeeds = baseNeeds;
+        this.needs = needs;
+        this.size = size;
+        this.version = version;
+    }
+
+    /**
+     * @return An index without any forecast data
+     */
+    public static ForecastIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Create an index from already encoded dictionaries and cube,
+     * e.g. when restoring a binary snapshot
+     *
+     * @param baseNeeds Cube in (product, month, region) order, {@link #NO_FORECAST} for empty cells
+     */
+    public static ForecastIndex of(String[] products, String[] months, String[] regions, int[] baseNeeds) {
+        if ((long) products.length * months.length * regions.length != baseNeeds.length) {
+            throw new IllegalArgumentException("Cube size " + baseNeeds.length + " does not match "
+                    + products.length + " x " + months.length + " x " + regions.length);
+        }
+        int size = 0;
+        for (int baseNeed : baseNeeds) {
+            if (baseNeed != NO_FORECAST) {
+                size++;
+            }
+        }
+        return new ForecastIndex(products.clone(), months.clone(), regions.clone(),
+                partition(baseNeeds, products.length, months.length * regions.length), size);
+    }
+
+    public int productId(String productName) {
+        return id(productIds, productName);
+    }
+
+    public int monthId(String month) {
+        return id(monthIds, month);
+    }
+
+    public int regionId(String region) {
+        return id(regionIds, region);
+    }
+
+    public String productName(int productId) {
+        return products[productId];
+    }
+
+    public String month(int monthId) {
+        return months[monthId];
+    }
+
+    public String region(int regionId) {
+        return regions[regionId];
+    }
+
+    public int productCount() {
+        return products.length;
+    }
+
+    public int monthCount() {
+        return months.length;
+    }
+
+    public int regionCount() {
+        return regions.length;
+    }
+
+    /**
+     * @return Number of populated (product, month, region) cells
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Version of the published snapshot, or {@link #UNVERSIONED}
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the same index with a snapshot version. All data is shared.
+     *
+     * @param version Version of the snapshot
+     * @return Versioned index
+     */
+    public ForecastIndex withVersion(long version) {
+        return new ForecastIndex(products, months, regions, productIds, monthIds, regionIds,
+                baseNeeds, needs, size, version);
+    }
+
+    /**
+     * Estimate the heap used by the cube, the per-size table and the dictionaries
+     *
+     * @return Approximate size in bytes
+     */
+    public long estimatedMemoryBytes() {
+        long bytes = 0;
+        for (int p = 0; p < products.length; p++) {
+            // Partition arrays plus their headers
+            bytes += 32 + 4L * baseNeeds[p].length + 4L * needs[p].length;
+        }
+        for (String[] values : List.of(products, months, regions)) {
+            for (String value : values) {
+                // String, backing array and dictionary entry
+                bytes += 96 + value.length();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the base (XS) need for the given ids
+     *
+     * @return Base need or {@link #NO_FORECAST} if any id is unknown or the cell is empty
+     */
+    public int baseNeed(int productId, int monthId, int regionId) {
+        if (productId < 0 || monthId < 0 || regionId < 0) {
+            return NO_FORECAST;
+        }
+        return baseNeeds[productId][cell(monthId, regionId)];
+    }
+
+    /**
+     * Get the base (XS) need for the given product, month and region names
+     *
+     * @return Base need or {@link #NO_FORECAST} if there is no forecast
+     */
+    public int baseNeed(String productName, String month, String region) {
+        return baseNeed(productId(productName), monthId(month), regionId(region));
+    }
+
+    /**
+     * Get the final need of a store of the given size, read from the precomputed table
+     *
+     * @return Need or {@link #NO_FORECAST} if any id is unknown or the cell is empty
+     */
+    public int need(int productId, int monthId, int regionId, StoreSize storeSize) {
+        if (productId < 0 || monthId < 0 || regionId < 0) {
+            return NO_FORECAST;
+        }
+        return needs[productId][cell(monthId, regionId) * SIZES.length + storeSize.ordinal()];
+    }
+
+    /**
+     * Apply the store size multiplication factor to a base (XS) need
+     *
+     * @param baseNeed Base need for an XS store
+     * @param storeSize Size of the store
+     * @return Need rounded to the nearest integer
+     */
+    public static int applyStoreSize(int baseNeed, StoreSize storeSize) {
+        // Multiply in double, round in float
+        return Math.round((float) (baseNeed * storeSize.getMultiplicationFactor()));
+    }
+
+    /**
+     * Visit every populated cell in (product, month, region) id order
+     */
+    public void forEach(CellConsumer consumer) {
+        for (int p = 0; p < products.length; p++) {
+            for (int m = 0; m < months.length; m++) {
+                for (int r = 0; r < regions.length; r++) {
+                    int baseNeed = baseNeeds[p][cell(m, r)];
+                    if (baseNeed != NO_FORECAST) {
+                        consumer.accept(products[p], months[m], regions[r], baseNeed);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Count the cells that differ from another snapshot: added, removed or with a changed need
+     *
+     * @param previous Snapshot to compare against
+     * @return Number of changed (product, month, region) cells
+     */
+    public int countChangedCells(ForecastIndex previous) {
+        int[] changed = new int[1];
+        forEach((productName, month, region, baseNeed) -> {
+            if (previous.baseNeed(productName, month, region) != baseNeed) {
+                changed[0]++;
+            }
+        });
+        previous.forEach((productName, month, region, baseNeed) -> {
+            if (baseNeed(productName, month, region) == NO_FORECAST) {
+                changed[0]++;
+            }
+        });
+        return changed[0];
+    }
+
+    /**
+     * Derive a new index with the given cells changed. Only the partitions of changed
+     * products are copied; unchanged products share their partition with this index.
+     * New products are appended; new months or regions change the shape of every
+     * partition, so all partitions are copied in that case. The result is unversioned.
+     *
+     * @param changes Cells to set, {@link #NO_FORECAST} removes a cell; the last change of a cell wins
+     * @return New index
+     */
+    public ForecastIndex withChanges(List<CellChange> changes) {
+        Map<String, Integer> newProductIds = extend(productIds, products.length, changes, CellChange::productName);
+        Map<String, Integer> newMonthIds = extend(monthIds, months.length, changes, CellChange::month);
+        Map<String, Integer> newRegionIds = extend(regionIds, regions.length, changes, CellChange::region);
+        String[] newProducts = names(newProductIds, products);
+        String[] newMonths = names(newMonthIds, months);
+        String[] newRegions = names(newRegionIds, regions);
+        boolean reshaped = newMonths.length != months.length || newRegions.length != regions.length;
+
+        int[][] newBaseNeeds = new int[newProducts.length][];
+        int[][] newNeeds = new int[newProducts.length][];
+        for (int p = 0; p < newProducts.length; p++) {
+            if (p >= products.length) {
+                newBaseNeeds[p] = emptyPartition(newMonths.length * newRegions.length);
+            } else if (reshaped) {
+                newBaseNeeds[p] = reshape(baseNeeds[p], newMonths.length, newRegions.length);
+            } else {
+                newBaseNeeds[p] = baseNeeds[p];
+                newNeeds[p] = needs[p];
+            }
+        }
+
+        int newSize = size;
+        for (CellChange change : changes) {
+            int p = id(newProductIds, change.productName());
+            int m = id(newMonthIds, change.month());
+            int r = id(newRegionIds, change.region());
+            if (p < 0 || m < 0 || r < 0) {
+                // Removal of a cell that never existed
+                continue;
+            }
+            if (newNeeds[p] != null) {
+                // First change of a shared partition
+                newBaseNeeds[p] = newBaseNeeds[p].clone();
+                newNeeds[p] = null;
+            }
+            int cell = m * newRegions.length + r;
+            int previous = newBaseNeeds[p][cell];
+            if (previous == NO_FORECAST && change.baseNeedXs() != NO_FORECAST) {
+                newSize++;
+            } else if (previous != NO_FORECAST && change.baseNeedXs() == NO_FORECAST) {
+                newSize--;
+            }
+            newBaseNeeds[p][cell] = change.baseNeedXs();
+        }
+
+        return new ForecastIndex(newProducts, newMonths, newRegions, newProductIds, newMonthIds, newRegionIds,
+                newBaseNeeds, sizedNeeds(newBaseNeeds, newNeeds), newSize, UNVERSIONED);
+    }
+
+    /**
+     * Count the product partitions this index shares with another index,
+     * e.g. to see how much of a snapshot a delta has copied
+     *
+     * @param other Index this one was derived from
+     * @return Number of partitions held by both indexes
+     */
+    public int countSharedPartitions(ForecastIndex other) {
+        int shared = 0;
+        for (int p = 0; p < Math.min(products.length, other.products.length); p++) {
+            if (baseNeeds[p] == other.baseNeeds[p]) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    public List<String> getProducts() {
+        return Collections.unmodifiableList(Arrays.asList(products));
+    }
+
+    public List<String> getMonths() {
+        return Collections.unmodifiableList(Arrays.asList(months));
+    }
+
+    public List<String> getRegions() {
+        return Collections.unmodifiableList(Arrays.asList(regions));
+    }
+
+    private int cell(int monthId, int regionId) {
+        return monthId * regions.length + regionId;
+    }
+
+    /**
+     * Fill the missing (null) per-size partitions from their base partitions
+     */
+    private static int[][] sizedNeeds(int[][] baseNeeds, int[][] needs) {
+        for (int p = 0; p < baseNeeds.length; p++) {
+            if (needs[p] == null) {
+                needs[p] = sizedNeeds(baseNeeds[p]);
+            }
+        }
+        return needs;
+    }
+
+    private static int[] sizedNeeds(int[] baseNeeds) {
+        int[] needs = new int[Math.multiplyExact(baseNeeds.length, SIZES.length)];
+        for (int cell = 0; cell < baseNeeds.length; cell++) {
+            int baseNeed = baseNeeds[cell];
+            for (StoreSize storeSize : SIZES) {
+                needs[cell * SIZES.length + storeSize.ordinal()] = baseNeed == NO_FORECAST
+                        ? NO_FORECAST
+                        : applyStoreSize(baseNeed, storeSize);
+            }
+        }
+        return needs;
+    }
+
+    private static int[][] partition(int[] cube, int productCount, int cellsPerProduct) {
+        int[][] partitions = new int[productCount][];
+        for (int p = 0; p < productCount; p++) {
+            partitions[p] = Arrays.copyOfRange(cube, p * cellsPerProduct, (p + 1) * cellsPerProduct);
+        }
+        return partitions;
+    }
+
+    private static int[] emptyPartition(int cells) {
+        int[] partition = new int[cells];
+        Arrays.fill(partition, NO_FORECAST);
+        return partition;
+    }
+
+    /**
+     * Copy a partition into a larger (months x regions) shape; existing ids keep their cell
+     */
+    private int[] reshape(int[] partition, int monthCount, int regionCount) {
+        int[] reshaped = emptyPartition(monthCount * regionCount);
+        for (int m = 0; m < months.length; m++) {
+            System.arraycopy(partition, m * regions.length, reshaped, m * regionCount, regions.length);
+        }
+        return reshaped;
+    }
+
+    /**
+     * Add the names of changed cells that are not in the dictionary yet; removals never add names
+     */
+    private static Map<String, Integer> extend(Map<String, Integer> dictionary, int count, List<CellChange> changes,
+                                               Function<CellChange, String> name) {
+        Map<String, Integer> extended = dictionary;
+        for (CellChange change : changes) {
+            String value = name.apply(change);
+            if (change.baseNeedXs() != NO_FORECAST && !extended.containsKey(value)) {
+                if (extended == dictionary) {
+                    extended = new HashMap<>(dictionary);
+                }
+                extended.put(value, count++);
+            }
+        }
+        return extended;
+    }
+
+    private static String[] names(Map<String, Integer> dictionary, String[] names) {
+        if (dictionary.size() == names.length) {
+            return names;
+        }
+        String[] extended = Arrays.copyOf(names, dictionary.size());
+        dictionary.forEach((name, id) -> extended[id] = name);
+        return extended;
+    }
+
+    private static int id(Map<String, Integer> dictionary, String value) {
+        if (value == null) {
+            return UNKNOWN_ID;
+        }
+        Integer id = dictionary.get(value);
+        return id != null ? id : UNKNOWN_ID;
+    }
+
+    private static Map<String, Integer> dictionary(String[] values) {
+        Map<String, Integer> ids = new HashMap<>(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            ids.put(values[i], i);
+        }
+        return ids;
+    }
+
+    /**
+     * Callback for {@link #forEach(CellConsumer)}
+     */
+    @FunctionalInterface
+    public interface CellConsumer {
+        void accept(String productName, String month, String region, int baseNeedXs);
+    }
+
+    /**
+     * One changed (product, month, region) cell for {@link #withChanges(List)}
+     *
+     * @param baseNeedXs New base need, or {@link #NO_FORECAST} to remove the cell
+     */
+    public record CellChange(String productName, String month, String region, int baseNeedXs) {
+    }
+
+    /**
+     * Collects forecast rows and builds the dense cube once all dimensions are known.
+     * Rows are buffered as int ids, so no per-row objects are kept.
+     * If the same (product, month, region) is added twice the last value wins.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> productIds = new HashMap<>();
+        private final Map<String, Integer> monthIds = new HashMap<>();
+        private final Map<String, Integer> regionIds = new HashMap<>();
+        private final List<String> products = new ArrayList<>();
+        private final List<String> months = new ArrayList<>();
+        private final List<String> regions = new ArrayList<>();
+
+        private int[] rows = new int[256];
+        private int rowCount;
+
+        private Builder() {
+        }
+
+        public Builder add(String month, String region, String productName, int baseNeedXs) {
+            if (baseNeedXs == NO_FORECAST) {
+                throw new IllegalArgumentException("Invalid base need: " + baseNeedXs);
+            }
+            int offset = rowCount * 4;
+            if (offset + 4 > rows.length) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            rows[offset] = intern(productIds, products, productName);
+            rows[offset + 1] = intern(monthIds, months, month);
+            rows[offset + 2] = intern(regionIds, regions, region);
+            rows[offset + 3] = baseNeedXs;
+            rowCount++;
+            return this;
+        }
+
+        public ForecastIndex build() {
+            int monthCount = months.size();
+            int regionCount = regions.size();
+            long cells = (long) products.size() * monthCount * regionCount;
+            if (cells > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Forecast cube too large: " + cells + " cells");
+            }
+
+            int[][] baseNeeds = new int[products.size()][];
+            for (int p = 0; p < baseNeeds.length; p++) {
+                baseNeeds[p] = emptyPartition(monthCount * regionCount);
+            }
+
+            int size = 0;
+            for (int i = 0; i < rowCount; i++) {
+                int offset = i * 4;
+                int[] partition = baseNeeds[rows[offset]];
+                int cell = rows[offset + 1] * regionCount + rows[offset + 2];
+                if (partition[cell] == NO_FORECAST) {
+                    size++;
+                }
+                partition[cell] = rows[offset + 3];
+            }
+
+            return new ForecastIndex(
+                    products.toArray(String[]::new),
+                    months.toArray(String[]::new),
+                    regions.toArray(String[]::new),
+                    baseNeeds,
+                    size
+            );
+        }
+
+        private static int intern(Map<String, Integer> ids, List<String> values, String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.needcalculation.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Master data of one store as registered on the server: name, region and size code.
+ * Registered stores can be calculated by region without sending them in every request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreMasterRecord {
+
+    @NotBlank(message = "Store name is required")
+    private String storeName;
+
+    @NotBlank(message = "Region is required")
+    private String region;
+
+    /**
+     * Store size code (xs, s, m, l, xl)
+     */
+    @NotBlank(message = "Store size is required")
+    private String storeSize;
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +49,22 @@ public interface ForecastRepository extends JpaRepository<ForecastData, String>
             @Param("region") String region
     );
 
+    /**
+     * Find all forecast data for the given products and months in the given regions.
+     * Fetches every row a calculation request needs in one set-based query.
+     * @param productNames Product names
+     * @param months Month names
+     * @param regions Region names
+     * @return List of ForecastData
+     */
+    @Query("SELECT f FROM ForecastData f WHERE f.productName IN :productNames " +
+            "AND f.month IN :months AND f.region IN :regions")
+    List<ForecastData> findByProductsMonthsAndRegions(
+            @Param("productNames") Collection<String> productNames,
+            @Param("months") Collection<String> months,
+            @Param("regions") Collection<String> regions
+    );
+
     /**
      * Find all unique regions
      * @return List of unique region names
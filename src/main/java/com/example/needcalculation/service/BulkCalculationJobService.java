@@ -0,0 +1,412 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.dto.BatchNeedCalculationRequest;
+import com.example.needcalculation.dto.BatchNeedCalculationResponse;
+import com.example.needcalculation.dto.BulkCalculationJobRequest;
+import com.example.needcalculation.dto.BulkCalculationJobStatus;
+import com.example.needcalculation.enums.BulkJobFormat;
+import com.example.needcalculation.enums.BulkJobState;
+import com.example.needcalculation.model.Store;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs bulk calculations (every product x store x month) as background jobs and
+ * writes their rows to a gzip-compressed NDJSON or CSV file.
+ *
+ * Each job lives in its own directory under {@code need.calculation.jobs.directory}:
+ * <pre>
+ * request.json   resolved products, stores, months and format
+ * status.json    progress checkpoint, replaced atomically after every chunk
+ * result.*.gz    result rows, one gzip member per chunk of stores
+ * </pre>
+ *
+ * Stores are calculated in fixed-size chunks. Every chunk is appended as a complete
+ * gzip member and forced to disk before the checkpoint records the new file length,
+ * so the file up to {@code bytesWritten} is always a valid gzip stream. After a
+ * restart, queued and running jobs are resubmitted: the result file is truncated to
+ * the checkpoint and the job continues with the next chunk. Chunks are routed across
+ * region shards; a failing shard fails the job instead of writing zeros.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BulkCalculationJobService {
+
+    private static final String REQUEST_FILE = "request.json";
+    private static final String STATUS_FILE = "status.json";
+    private static final String RESULT_FILE = "result.";
+    private static final String CSV_HEADER = "productName,month,storeName,need\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final NeedCalculationService needCalculationService;
+    private final ShardRouter shardRouter;
+    private final StoreConfigurationService storeConfigurationService;
+    private final ObjectMapper objectMapper;
+
+    // Directory holding one sub-directory per job
+    @Value("${need.calculation.jobs.directory:build/jobs}")
+    private Path directory = Path.of("build/jobs");
+
+    // Jobs calculated at the same time
+    @Value("${need.calculation.jobs.threads:1}")
+    private int threads = 1;
+
+    // Jobs waiting for a worker before submissions are rejected
+    @Value("${need.calculation.jobs.queue-capacity:16}")
+    private int queueCapacity = 16;
+
+    // Stores calculated and written per chunk (and checkpoint)
+    @Value("${need.calculation.jobs.chunk-stores:5000}")
+    private int chunkStores = 5000;
+
+    private final Map<String, BulkCalculationJobStatus> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Create the job executor and resume the jobs left unfinished by the last run
+     */
+    @PostConstruct
+    public void initialize() throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "bulk-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Files.createDirectories(directory);
+        int resumed = 0;
+        try (DirectoryStream<Path> jobDirectories = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path jobDirectory : jobDirectories) {
+                if (recoverJob(jobDirectory)) {
+                    resumed++;
+                }
+            }
+        }
+        log.info("Initialized bulk job executor with {} workers, {} known jobs, {} resumed",
+                threads, jobs.size(), resumed);
+    }
+
+    /**
+     * Stop the workers. Running jobs keep their last checkpoint and resume on the next start.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Submit a bulk calculation job.
+     * Products, stores and months are resolved now, so a resumed job calculates the same rows.
+     *
+     * @param request Products, stores, months and format; missing lists use all products,
+     *                all registered stores and the current month
+     * @return Status of the queued job
+     * @throws IllegalArgumentException if there are no products or stores
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public BulkCalculationJobStatus submit(BulkCalculationJobRequest request) throws IOException {
+        List<String> productNames = request.getProductNames() != null && !request.getProductNames().isEmpty()
+                ? List.copyOf(request.getProductNames())
+                : needCalculationService.getAvailableProducts();
+        List<Store> stores = request.getStores() != null && !request.getStores().isEmpty()
+                ? request.getStores()
+                : storeConfigurationService.getRegisteredStores(null);
+        if (productNames.isEmpty() || stores.isEmpty()) {
+            throw new IllegalArgumentException("A bulk job needs at least one product and one store");
+        }
+        BulkCalculationJobRequest resolved = new BulkCalculationJobRequest(productNames, stores,
+                NeedCalculationService.determineMonths(request.getMonths()),
+                request.getFormat() != null ? request.getFormat() : BulkJobFormat.NDJSON);
+
+        Instant now = Instant.now();
+        BulkCalculationJobStatus status = new BulkCalculationJobStatus();
+        status.setJobId(UUID.randomUUID().toString());
+        status.setState(BulkJobState.QUEUED);
+        status.setFormat(resolved.getFormat());
+        status.setProductCount(productNames.size());
+        status.setStoreCount(stores.size());
+        status.setMonthCount(resolved.getMonths().size());
+        status.setStoresPerChunk(chunkStores);
+        status.setTotalChunks((stores.size() + chunkStores - 1) / chunkStores);
+        status.setCreatedAt(now);
+        status.setUpdatedAt(now);
+
+        Path jobDirectory = directory.resolve(status.getJobId());
+        Files.createDirectories(jobDirectory);
+        objectMapper.writeValue(jobDirectory.resolve(REQUEST_FILE).toFile(), resolved);
+        checkpoint(status);
+
+        try {
+            executor.execute(() -> run(status, resolved));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(status.getJobId());
+            FileSystemUtils.deleteRecursively(jobDirectory);
+            throw e;
+        }
+
+        log.info("Queued bulk job {}: {} products x {} stores x {} months in {} chunks",
+                status.getJobId(), productNames.size(), stores.size(), resolved.getMonths().size(),
+                status.getTotalChunks());
+        return status.copy();
+    }
+
+    /**
+     * Get the status of a job
+     *
+     * @param jobId Job ID
+     * @return Job status, empty if the job is unknown
+     */
+    public Optional<BulkCalculationJobStatus> getStatus(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(BulkCalculationJobStatus::copy);
+    }
+
+    /**
+     * Get the result file of a completed job
+     *
+     * @param jobId Job ID
+     * @return Result file, empty if the job is unknown or not completed
+     */
+    public Optional<Path> getResultFile(String jobId) {
+        return getStatus(jobId)
+                .filter(status -> status.getState() == BulkJobState.COMPLETED)
+                .map(this::resultFile);
+    }
+
+    /**
+     * Delete a finished job and its files
+     *
+     * @param jobId Job ID
+     * @return false if the job is still queued or running
+     * @throws IllegalArgumentException if the job is unknown
+     */
+    public boolean delete(String jobId) throws IOException {
+        BulkCalculationJobStatus status = getStatus(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown job: " + jobId));
+        if (status.getState() == BulkJobState.QUEUED || status.getState() == BulkJobState.RUNNING) {
+            return false;
+        }
+        jobs.remove(jobId);
+        FileSystemUtils.deleteRecursively(directory.resolve(jobId));
+        log.info("Deleted bulk job {}", jobId);
+        return true;
+    }
+
+    private void run(BulkCalculationJobStatus status, BulkCalculationJobRequest request) {
+        long start = System.nanoTime();
+        try {
+            status.setState(BulkJobState.RUNNING);
+            checkpoint(status);
+
+            try (FileChannel channel = FileChannel.open(resultFile(status),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // Drop whatever a crashed run wrote after the last checkpoint
+                channel.truncate(status.getBytesWritten());
+                channel.position(status.getBytesWritten());
+
+                for (int chunk = status.getCompletedChunks(); chunk < status.getTotalChunks(); chunk++) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        log.info("Bulk job {} interrupted after {} of {} chunks, resuming on next start",
+                                status.getJobId(), chunk, status.getTotalChunks());
+                        return;
+                    }
+                    long rows = writeChunk(channel, request, chunk);
+                    channel.force(false);
+
+                    status.setCompletedChunks(chunk + 1);
+                    status.setRowsWritten(status.getRowsWritten() + rows);
+                    status.setBytesWritten(channel.position());
+                    checkpoint(status);
+                }
+            }
+
+            status.setState(BulkJobState.COMPLETED);
+            checkpoint(status);
+            log.info("Completed bulk job {}: {} rows, {} bytes in {} ms", status.getJobId(),
+                    status.getRowsWritten(), status.getBytesWritten(), (System.nanoTime() - start) / 1_000_000);
+
+        } catch (ClosedByInterruptException e) {
+            log.info("Bulk job {} interrupted during chunk {}, resuming on next start",
+                    status.getJobId(), status.getCompletedChunks());
+        } catch (Exception e) {
+            log.error("Bulk job {} failed", status.getJobId(), e);
+            status.setState(BulkJobState.FAILED);
+            status.setError(e.getMessage());
+            try {
+                checkpoint(status);
+            } catch (IOException checkpointError) {
+                log.error("Could not record failure of bulk job {}", status.getJobId(), checkpointError);
+            }
+        }
+    }
+
+    /**
+     * Calculate one chunk of stores and append its rows as a complete gzip member
+     *
+     * @return Number of rows written
+     */
+    private long writeChunk(FileChannel channel, BulkCalculationJobRequest request, int chunk) throws IOException {
+        List<Store> stores = request.getStores();
+        int from = chunk * chunkStores;
+        List<Store> chunkStoreList = new ArrayList<>(stores.subList(from, Math.min(from + chunkStores, stores.size())));
+        BatchNeedCalculationResponse response = shardRouter.calculateBatchNeeds(
+                new BatchNeedCalculationRequest(request.getProductNames(), chunkStoreList, request.getMonths()));
+
+        // The channel stays open across chunks; only the gzip member is closed
+        BufferedOutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        try (OutputStream gzip = new GZIPOutputStream(StreamUtils.nonClosing(buffered), BUFFER_SIZE)) {
+            if (request.getFormat() == BulkJobFormat.CSV) {
+                writeCsv(gzip, response, chunk == 0);
+            } else {
+                writeNdjson(gzip, response);
+            }
+        }
+        buffered.flush();
+        return (long) response.getStoreNames().size() * response.getProductNeeds().size();
+    }
+
+    private void writeNdjson(OutputStream out, BatchNeedCalculationResponse response) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)) {
+            List<String> storeNames = response.getStoreNames();
+            for (BatchNeedCalculationResponse.ProductNeeds productNeeds : response.getProductNeeds()) {
+                int[] needs = productNeeds.getNeeds();
+                for (int i = 0; i < needs.length; i++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("productName", productNeeds.getProductName());
+                    generator.writeStringField("month", productNeeds.getMonth());
+                    generator.writeStringField("storeName", storeNames.get(i));
+                    generator.writeNumberField("need", needs[i]);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+    }
+
+    private static void writeCsv(OutputStream out, BatchNeedCalculationResponse response, boolean header)
+            throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        if (header) {
+            writer.write(CSV_HEADER);
+        }
+        List<String> storeNames = response.getStoreNames();
+        for (BatchNeedCalculationResponse.ProductNeeds productNeeds : response.getProductNeeds()) {
+            String prefix = csvField(productNeeds.getProductName()) + ',' + csvField(productNeeds.getMonth()) + ',';
+            int[] needs = productNeeds.getNeeds();
+            for (int i = 0; i < needs.length; i++) {
+                writer.write(prefix);
+                writer.write(csvField(storeNames.get(i)));
+                writer.write(',');
+                writer.write(Integer.toString(needs[i]));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Publish the status and persist it by replacing status.json
+     */
+    private void checkpoint(BulkCalculationJobStatus status) throws IOException {
+        status.setUpdatedAt(Instant.now());
+        jobs.put(status.getJobId(), status.copy());
+
+        Path statusFile = directory.resolve(status.getJobId()).resolve(STATUS_FILE);
+        Path temporary = statusFile.resolveSibling(STATUS_FILE + ".tmp");
+        objectMapper.writeValue(temporary.toFile(), status);
+        Files.move(temporary, statusFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load a job from its directory and resubmit it if it was queued or running
+     *
+     * @return Whether the job was resubmitted
+     */
+    private boolean recoverJob(Path jobDirectory) {
+        Path statusFile = jobDirectory.resolve(STATUS_FILE);
+        if (!Files.isRegularFile(statusFile)) {
+            return false;
+        }
+        try {
+            BulkCalculationJobStatus status = objectMapper.readValue(statusFile.toFile(), BulkCalculationJobStatus.class);
+            jobs.put(status.getJobId(), status.copy());
+            if (status.getState() != BulkJobState.QUEUED && status.getState() != BulkJobState.RUNNING) {
+                return false;
+            }
+
+            BulkCalculationJobRequest request = objectMapper.readValue(
+                    jobDirectory.resolve(REQUEST_FILE).toFile(), BulkCalculationJobRequest.class);
+            try {
+                executor.execute(() -> run(status, request));
+            } catch (RejectedExecutionException e) {
+                status.setState(BulkJobState.FAILED);
+                status.setError("Job queue full on restart");
+                checkpoint(status);
+                return false;
+            }
+            log.info("Resuming bulk job {} at chunk {} of {}",
+                    status.getJobId(), status.getCompletedChunks(), status.getTotalChunks());
+            return true;
+
+        } catch (IOException e) {
+            log.error("Could not recover bulk job from {}", jobDirectory, e);
+            return false;
+        }
+    }
+
+    private Path resultFile(BulkCalculationJobStatus status) {
+        return directory.resolve(status.getJobId())
+                .resolve(RESULT_FILE + status.getFormat().getFileExtension());
+    }
+}
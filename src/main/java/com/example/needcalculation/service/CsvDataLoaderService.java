@@ -1,103 +1,404 @@
 package com.example.needcalculation.service;
 
+import com.example.needcalculation.dto.ForecastDeltaRequest;
+import com.example.needcalculation.dto.ForecastDeltaResult;
+import com.example.needcalculation.dto.ForecastReloadResult;
 import com.example.needcalculation.entity.ForecastData;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
+import com.example.needcalculation.model.ForecastIndex;
+import com.example.needcalculation.model.Store;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.format.TextStyle;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Service responsible for loading forecast data from CSV file.
  * This simulates database operations while reading from CSV.
  *
+ * The file is streamed through {@link ForecastCsvReader} and the rows are kept
+ * as a dictionary-encoded {@link ForecastIndex} instead of one object per row;
+ * {@link ForecastData} instances are only materialized for the convenience
+ * finder methods.
+ *
  * @PostConstruct ensures the CSV is loaded when the application starts.
+ * With csv.snapshot.enabled a binary snapshot of the index is kept next to
+ * the CSV and restored instead of parsing when the CSV checksum is unchanged.
+ * Afterwards the file is polled for changes (or reloaded on demand) and the
+ * rebuilt index is published with a single atomic reference swap, so readers
+ * never take locks and always see one complete snapshot. A changed file is only
+ * reloaded once its modification time and size stayed the same for a whole poll
+ * interval, so a file that is still being copied in place is not parsed half-written.
+ *
+ * Intra-day corrections are applied as deltas on top of the current snapshot
+ * ({@link #applyChanges(List)}), copying only the partitions of changed products.
+ * Every published snapshot is stamped with the next version. Versions start at the
+ * startup time in epoch milliseconds, so a version is never reused after a restart even
+ * though deltas are kept in memory only; the next reload of the CSV replaces them.
+ *
+ * With forecast.shard.regions set, the instance is one shard of a region-sharded
+ * deployment and only loads (and accepts deltas for) the regions it owns;
+ * {@link ShardRouter} sends the stores of other regions to their shards.
  */
 @Service
 @Slf4j
-public class CsvDataLoaderService {
+public class CsvDataLoaderService implements ForecastSource {
 
     @Value("${csv.file.path}")
     private String csvFilePath;
 
+    @Value("${csv.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+
+    // Defaults to <csv.file.path>.snapshot; a shard appends its regions
+    @Value("${csv.snapshot.path:}")
+    private String snapshotFilePath;
+
+    @Value("${csv.reload.watch:false}")
+    private boolean watchEnabled;
+
+    // Regions owned by this shard, empty to load all regions
+    @Value("${forecast.shard.regions:}")
+    private Set<String> shardRegions = Set.of();
+
     // In-memory storage for forecast data (simulating database)
-    private Map<String, ForecastData> forecastDataMap = new HashMap<>();
+    private final AtomicReference<ForecastIndex> forecastIndex = new AtomicReference<>(ForecastIndex.empty());
+
+    // Version of the last published snapshot, seeded with the startup time to stay unique across restarts
+    private final AtomicLong forecastVersion = new AtomicLong(System.currentTimeMillis());
+
+    // Deltas applied since the CSV was last loaded, replaced by the next reload
+    private int appliedDeltas;
+
+    // Modification time and size of the file behind the current snapshot
+    private volatile FileTime loadedModifiedTime;
+    private volatile long loadedFileSize = -1;
+
+    // Changed modification time and size seen by the previous poll, reloaded if still the same
+    private FileTime pendingModifiedTime;
+    private long pendingFileSize = -1;
 
     /**
      * Load CSV data into memory when the application starts
      */
     @PostConstruct
     public void loadCsvData() {
-        log.info("Loading forecast data from CSV file: {}", csvFilePath);
-
-        try (CSVReader reader = new CSVReader(new FileReader(csvFilePath))) {
-            List<String[]> rows = reader.readAll();
-
-            // Skip header row
-            for (int i = 1; i < rows.size(); i++) {
-                String[] row = rows.get(i);
-                if (row.length >= 4) {
-                    ForecastData data = new ForecastData();
-                    data.setMonth(row[0].trim());
-                    data.setRegion(row[1].trim());
-                    data.setProductName(row[2].trim());
-                    data.setBaseNeedXs(Integer.parseInt(row[3].trim()));
-
-                    // Generate composite key
-                    String key = ForecastData.generateKey(
-                            data.getProductName(),
-                            data.getMonth(),
-                            data.getRegion()
-                    );
-                    data.setProductForecastKey(key);
-
-                    forecastDataMap.put(key, data);
-                }
-            }
+        log.info("Loading forecast data from CSV file: {}{}", csvFilePath,
+                shardRegions.isEmpty() ? "" : " for regions " + shardRegions);
 
-            log.info("Successfully loaded {} forecast records", forecastDataMap.size());
+        try {
+            publish(readCsv());
+            log.info("Successfully loaded {} forecast records", forecastIndex.get().size());
 
-        } catch (IOException | CsvException e) {
+        } catch (IOException e) {
             log.error("Error loading CSV data: ", e);
             throw new RuntimeException("Failed to load forecast data from CSV", e);
         }
     }
 
     /**
-     * Find forecast data by composite key
+     * Rebuild the index from the CSV file and publish it atomically.
+     * Reloads are serialized; readers keep using the previous snapshot until the swap.
+     * If the file cannot be read the previous snapshot stays in place. Deltas applied
+     * since the previous load are not in the CSV and are discarded.
+     *
+     * @return Statistics of the reload, including the number of discarded deltas
+     */
+    public synchronized ForecastReloadResult reloadCsvData() {
+        log.info("Reloading forecast data from CSV file: {}", csvFilePath);
+        long startTime = System.nanoTime();
+
+        ForecastIndex reloaded;
+        try {
+            reloaded = readCsv();
+        } catch (IOException e) {
+            log.error("Error reloading CSV data, keeping previous forecast: ", e);
+            throw new IllegalStateException("Failed to reload forecast data from CSV", e);
+        }
+
+        ForecastIndex previous = publish(reloaded);
+        long durationMs = (System.nanoTime() - startTime) / 1_000_000;
+        int changedRecords = reloaded.countChangedCells(previous);
+        int discardedDeltas = appliedDeltas;
+        appliedDeltas = 0;
+
+        log.info("Reloaded {} forecast records ({} changed) in {} ms",
+                reloaded.size(), changedRecords, durationMs);
+        if (discardedDeltas > 0) {
+            log.warn("Reload replaced {} forecast deltas applied since the previous load", discardedDeltas);
+        }
+
+        return new ForecastReloadResult(reloaded.size(), changedRecords, durationMs, discardedDeltas);
+    }
+
+    /**
+     * Apply the rows of a delta request; months are normalized like calculation requests.
+     * Every month must be a calendar month and every region must already be in the
+     * forecast unless the request allows new regions, since a new dimension copies
+     * every product partition and stays in the dictionary. On a shard, every row must
+     * belong to one of its regions; the whole delta is rejected otherwise.
+     *
+     * @param request Changed forecast cells
+     * @return Statistics of the delta, including the new forecast version
+     * @throws IllegalArgumentException if a month is invalid, a region is unknown or owned by another shard
+     */
+    public ForecastDeltaResult applyDelta(ForecastDeltaRequest request) {
+        ForecastIndex current = forecastIndex.get();
+        List<ForecastIndex.CellChange> changes = new ArrayList<>(request.getRows().size());
+        Set<String> unknownRegions = new TreeSet<>();
+        List<String> foreignRows = new ArrayList<>();
+        for (int i = 0; i < request.getRows().size(); i++) {
+            ForecastDeltaRequest.Row row = request.getRows().get(i);
+            if (!ownsRegion(row.getRegion())) {
+                foreignRows.add(i + " (" + row.getProductName() + ", " + row.getMonth() + ", " + row.getRegion() + ")");
+                continue;
+            }
+            if (current.regionId(row.getRegion()) == ForecastIndex.UNKNOWN_ID) {
+                unknownRegions.add(row.getRegion());
+            }
+            changes.add(new ForecastIndex.CellChange(
+                    row.getProductName(),
+                    NeedCalculationService.parseMonth(row.getMonth()).getDisplayName(TextStyle.FULL, Locale.ENGLISH),
+                    row.getRegion(),
+                    row.getBaseNeedXs() != null ? row.getBaseNeedXs() : ForecastIndex.NO_FORECAST));
+        }
+        if (!foreignRows.isEmpty()) {
+            throw new IllegalArgumentException("Rows for regions owned by other shards, this shard owns "
+                    + new TreeSet<>(shardRegions) + ": " + String.join(", ", foreignRows));
+        }
+        if (!unknownRegions.isEmpty() && !request.isAllowNewRegions()) {
+            throw new IllegalArgumentException("Unknown regions " + unknownRegions
+                    + ", set allowNewRegions to add them to the forecast");
+        }
+        return applyChanges(changes);
+    }
+
+    /**
+     * Apply changed cells to the current snapshot and publish the result as a new version.
+     * Only the partitions of changed products are copied; the rest is shared with the
+     * previous snapshot, which in-flight calculations keep using.
+     *
+     * Nothing is published for an empty list of changes.
+     *
+     * @param changes Cells to add, update or remove
+     * @return Statistics of the delta, including the new forecast version
+     */
+    public synchronized ForecastDeltaResult applyChanges(List<ForecastIndex.CellChange> changes) {
+        long startTime = System.nanoTime();
+
+        ForecastIndex current = forecastIndex.get();
+        if (changes.isEmpty()) {
+            return new ForecastDeltaResult(forecastVersion.get(), 0, 0, 0, 0);
+        }
+        ForecastIndex changed = current.withChanges(changes);
+        int changedRecords = countChangedCells(current, changed, changes);
+        int copiedPartitions = changed.productCount() - changed.countSharedPartitions(current);
+        publish(changed);
+        appliedDeltas++;
+
+        long durationMs = (System.nanoTime() - startTime) / 1_000_000;
+        long version = forecastVersion.get();
+        log.info("Applied {} forecast changes ({} changed records, {} of {} product partitions copied) "
+                        + "as version {} in {} ms",
+                changes.size(), changedRecords, copiedPartitions, changed.productCount(), version, durationMs);
+
+        return new ForecastDeltaResult(version, changes.size(), changedRecords, copiedPartitions, durationMs);
+    }
+
+    /**
+     * Compare only the cells named by the changes instead of both complete snapshots
+     */
+    private static int countChangedCells(ForecastIndex previous, ForecastIndex changed,
+                                         List<ForecastIndex.CellChange> changes) {
+        Set<List<String>> cells = new HashSet<>(changes.size() * 2);
+        int changedCells = 0;
+        for (ForecastIndex.CellChange change : changes) {
+            if (cells.add(List.of(change.productName(), change.month(), change.region()))
+                    && previous.baseNeed(change.productName(), change.month(), change.region())
+                    != changed.baseNeed(change.productName(), change.month(), change.region())) {
+                changedCells++;
+            }
+        }
+        return changedCells;
+    }
+
+    /**
+     * Stamp the index with the next version and swap it in
+     *
+     * @return The previous snapshot
+     */
+    private synchronized ForecastIndex publish(ForecastIndex index) {
+        return forecastIndex.getAndSet(index.withVersion(forecastVersion.incrementAndGet()));
+    }
+
+    /**
+     * Poll the CSV file and reload it in the background when it changed and
+     * then stayed unchanged until the next poll
+     */
+    @Scheduled(fixedDelayString = "${csv.reload.poll-interval-ms:10000}",
+            initialDelayString = "${csv.reload.poll-interval-ms:10000}")
+    public void reloadIfChanged() {
+        if (!watchEnabled) {
+            return;
+        }
+        try {
+            Path path = Path.of(csvFilePath);
+            FileTime modifiedTime = Files.getLastModifiedTime(path);
+            long fileSize = Files.size(path);
+            if (modifiedTime.equals(loadedModifiedTime) && fileSize == loadedFileSize) {
+                pendingModifiedTime = null;
+                return;
+            }
+            if (!modifiedTime.equals(pendingModifiedTime) || fileSize != pendingFileSize) {
+                // Possibly still being written; wait for one quiet poll interval
+                log.info("CSV file {} changed, reloading once it is unchanged for one poll interval", csvFilePath);
+                pendingModifiedTime = modifiedTime;
+                pendingFileSize = fileSize;
+                return;
+            }
+            pendingModifiedTime = null;
+            reloadCsvData();
+        } catch (Exception e) {
+            log.error("Error checking CSV file {} for changes: {}", csvFilePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Get the current forecast index.
+     * Callers on the hot path should read this once per request and resolve ids against it.
+     */
+    public ForecastIndex getForecastIndex() {
+        return forecastIndex.get();
+    }
+
+    /**
+     * The in-memory snapshot already covers every product, month and region
+     */
+    @Override
+    public ForecastIndex getForecastIndex(Collection<String> productNames, Collection<String> months,
+                                          List<Store> stores) {
+        return forecastIndex.get();
+    }
+
+    @Override
+    public long getForecastVersion() {
+        return forecastIndex.get().getVersion();
+    }
+
+    /**
+     * Whether forecast rows of a region are loaded by this instance
+     *
+     * @param region Region name
+     * @return true if the region is owned by this shard or the instance is not sharded
+     */
+    public boolean ownsRegion(String region) {
+        return shardRegions.isEmpty() || shardRegions.contains(region);
+    }
+
+    private ForecastCsvReader newReader() {
+        return shardRegions.isEmpty() ? new ForecastCsvReader() : new ForecastCsvReader(shardRegions);
+    }
+
+    private ForecastIndex readCsv() throws IOException {
+        Path path = Path.of(csvFilePath);
+        FileTime modifiedTime = Files.getLastModifiedTime(path);
+        long fileSize = Files.size(path);
+
+        ForecastIndex index = snapshotEnabled ? readWithSnapshot(path) : newReader().read(path);
+        loadedModifiedTime = modifiedTime;
+        loadedFileSize = fileSize;
+        return index;
+    }
+
+    /**
+     * Restore the index from the binary snapshot if it was built from the same CSV,
+     * otherwise parse the CSV and write a fresh snapshot for the next start
+     */
+    private ForecastIndex readWithSnapshot(Path csvPath) throws IOException {
+        long checksum = ForecastSnapshotFile.checksum(csvPath);
+        if (!shardRegions.isEmpty()) {
+            // A shard's snapshot only holds its regions and must not be reused with other regions
+            checksum = 31 * checksum + new TreeSet<>(shardRegions).hashCode();
+        }
+        Path snapshotPath = snapshotFilePath.isBlank()
+                ? csvPath.resolveSibling(csvPath.getFileName() + ".snapshot")
+                : Path.of(snapshotFilePath);
+        if (!shardRegions.isEmpty()) {
+            // Shards started from the same configuration must not overwrite each other's snapshot
+            snapshotPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + "."
+                    + String.join("-", new TreeSet<>(shardRegions)));
+        }
+
+        Optional<ForecastIndex> snapshot = ForecastSnapshotFile.read(snapshotPath, checksum);
+        if (snapshot.isPresent()) {
+            log.info("Loaded forecast data from binary snapshot: {}", snapshotPath);
+            return snapshot.get();
+        }
+
+        ForecastIndex index = newReader().read(csvPath);
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            ForecastSnapshotFile.write(index, checksum, snapshotPath);
+            log.info("Wrote binary forecast snapshot: {}", snapshotPath);
+        } catch (IOException e) {
+            log.warn("Unable to write forecast snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Find forecast data by composite key (productName#month#region)
      */
     public Optional<ForecastData> findByKey(String key) {
-        return Optional.ofNullable(forecastDataMap.get(key));
+        int regionSeparator = key.lastIndexOf('#');
+        int monthSeparator = regionSeparator > 0 ? key.lastIndexOf('#', regionSeparator - 1) : -1;
+        if (monthSeparator < 0) {
+            return Optional.empty();
+        }
+        return findByProductMonthAndRegion(
+                key.substring(0, monthSeparator),
+                key.substring(monthSeparator + 1, regionSeparator),
+                key.substring(regionSeparator + 1)
+        );
     }
 
     /**
      * Find forecast data by product, month, and region
      */
     public Optional<ForecastData> findByProductMonthAndRegion(String productName, String month, String region) {
-        String key = ForecastData.generateKey(productName, month, region);
-        return findByKey(key);
+        int baseNeed = forecastIndex.get().baseNeed(productName, month, region);
+        if (baseNeed == ForecastIndex.NO_FORECAST) {
+            return Optional.empty();
+        }
+        return Optional.of(toForecastData(productName, month, region, baseNeed));
     }
 
     /**
      * Get all forecast data
      */
     public List<ForecastData> findAll() {
-        return new ArrayList<>(forecastDataMap.values());
+        ForecastIndex index = forecastIndex.get();
+        List<ForecastData> all = new ArrayList<>(index.size());
+        index.forEach((productName, month, region, baseNeed) ->
+                all.add(toForecastData(productName, month, region, baseNeed)));
+        return all;
     }
 
     /**
      * Get all unique regions
      */
     public List<String> getAllRegions() {
-        return forecastDataMap.values().stream()
-                .map(ForecastData::getRegion)
-                .distinct()
+        return forecastIndex.get().getRegions().stream()
                 .sorted()
                 .collect(Collectors.toList());
     }
@@ -106,10 +407,18 @@ public class CsvDataLoaderService {
      * Get all unique products
      */
     public List<String> getAllProducts() {
-        return forecastDataMap.values().stream()
-                .map(ForecastData::getProductName)
-                .distinct()
+        return forecastIndex.get().getProducts().stream()
                 .sorted()
                 .collect(Collectors.toList());
     }
+
+    private static ForecastData toForecastData(String productName, String month, String region, int baseNeed) {
+        return new ForecastData(
+                ForecastData.generateKey(productName, month, region),
+                month,
+                region,
+                productName,
+                baseNeed
+        );
+    }
 }
\ No newline at end of file
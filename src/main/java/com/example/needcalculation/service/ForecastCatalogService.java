@@ -0,0 +1,94 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.enums.StoreSize;
+import com.example.needcalculation.model.ForecastIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the catalog behind GET /config (months, regions, products and store sizes).
+ *
+ * The catalog is serialized once per forecast snapshot and kept as immutable bytes
+ * together with an ETag derived from its content, so polling clients get a 304
+ * without the catalog being rebuilt or re-serialized.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastCatalogService {
+
+    private final CsvDataLoaderService csvDataLoaderService;
+    private final ObjectMapper objectMapper;
+
+    private volatile Catalog catalog;
+
+    /**
+     * Get the catalog of the current forecast snapshot, building it on first use after a reload
+     *
+     * @return Serialized catalog with its ETag
+     */
+    public Catalog getCatalog() {
+        long version = csvDataLoaderService.getForecastVersion();
+        Catalog current = catalog;
+        if (current != null && current.forecastVersion() == version) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = catalog;
+            if (current == null || current.forecastVersion() != version) {
+                current = buildCatalog(version, csvDataLoaderService.getForecastIndex());
+                catalog = current;
+            }
+            return current;
+        }
+    }
+
+    private Catalog buildCatalog(long version, ForecastIndex forecastIndex) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("availableMonths", sorted(forecastIndex.getMonths()));
+        config.put("availableRegions", sorted(forecastIndex.getRegions()));
+        config.put("availableProducts", sorted(forecastIndex.getProducts()));
+        config.put("storeSizes", Arrays.stream(StoreSize.values()).map(StoreSize::getCode).toList());
+
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(config);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+
+            log.info("Built forecast catalog {} ({} bytes) for forecast version {}", etag, body.length, version);
+            return new Catalog(version, body, etag);
+
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static List<String> sorted(List<String> values) {
+        return values.stream().sorted().toList();
+    }
+
+    /**
+     * Serialized catalog of one forecast snapshot
+     *
+     * @param forecastVersion Forecast version the catalog was built from
+     * @param body JSON bytes; must not be modified
+     * @param etag Strong ETag of the body, including quotes
+     */
+    public record Catalog(long forecastVersion, byte[] body, String etag) {
+    }
+}
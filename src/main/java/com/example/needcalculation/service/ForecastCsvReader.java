@@ -0,0 +1,336 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.model.ForecastIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+/**
+ * Streaming parser for the forecast CSV (month,region,product_name,base_need_xs).
+ *
+ * The file is memory-mapped in fixed-size windows and parsed record by record
+ * straight into a {@link ForecastIndex.Builder}, so no row arrays are materialized
+ * and memory use does not depend on the file size. Repeated column values are
+ * resolved through a small per-column dictionary and share one String instance.
+ *
+ * The first line is a header, values are trimmed, fields may be quoted
+ * ("" escapes a quote) and rows with fewer than four columns are skipped.
+ * Quoted fields cannot span lines. A reader created with a region set keeps only
+ * the rows of those regions (the regions owned by a shard).
+ *
+ * A reader keeps parsing state and is meant to be used for a single load.
+ */
+public final class ForecastCsvReader {
+
+    private static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int COLUMNS = 4;
+
+    private final long windowSize;
+
+    // Regions to keep, or null for all rows
+    private final Set<String> regions;
+
+    // Per-column dictionaries for month, region and product name
+    private final ColumnDictionary[] dictionaries = {
+            new ColumnDictionary(), new ColumnDictionary(), new ColumnDictionary()
+    };
+
+    // Field boundaries of the current record: start, end and quoted-flag per column
+    private final int[] fieldStart = new int[COLUMNS];
+    private final int[] fieldEnd = new int[COLUMNS];
+    private final boolean[] fieldEscaped = new boolean[COLUMNS];
+
+    private long lineNumber;
+
+    public ForecastCsvReader() {
+        this(DEFAULT_WINDOW_SIZE, null);
+    }
+
+    /**
+     * @param regions Regions to keep; rows of other regions are skipped
+     */
+    public ForecastCsvReader(Set<String> regions) {
+        this(DEFAULT_WINDOW_SIZE, Set.copyOf(regions));
+    }
+
+    ForecastCsvReader(long windowSize) {
+        this(windowSize, null);
+    }
+
+    private ForecastCsvReader(long windowSize, Set<String> regions) {
+        this.windowSize = windowSize;
+        this.regions = regions;
+    }
+
+    /**
+     * Parse the CSV file into a new forecast index
+     *
+     * @param path Path of the CSV file
+     * @return Index with every data row of the file
+     * @throws IOException if the file cannot be read or contains an invalid row
+     */
+    public ForecastIndex read(Path path) throws IOException {
+        ForecastIndex.Builder builder = ForecastIndex.builder();
+        lineNumber = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                long length = Math.min(windowSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+
+                int consumed = parseWindow(window, position == 0, lastWindow, builder);
+                if (consumed == 0) {
+                    throw new IOException("CSV line " + (lineNumber + 1) + " is longer than "
+                            + windowSize + " bytes");
+                }
+                position += consumed;
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Parse all complete lines of a window; the trailing partial line is left
+     * for the next window unless this is the end of the file
+     *
+     * @return Number of bytes consumed
+     */
+    private int parseWindow(ByteBuffer window, boolean firstWindow, boolean lastWindow,
+                            ForecastIndex.Builder builder) throws IOException {
+        int limit = window.limit();
+        int lineStart = 0;
+
+        // Skip a UTF-8 byte order mark
+        if (firstWindow && limit >= 3 && (window.get(0) & 0xFF) == 0xEF
+                && (window.get(1) & 0xFF) == 0xBB && (window.get(2) & 0xFF) == 0xBF) {
+            lineStart = 3;
+        }
+
+        for (int i = lineStart; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                parseLine(window, lineStart, i, builder);
+                lineStart = i + 1;
+            }
+        }
+
+        if (lastWindow && lineStart < limit) {
+            parseLine(window, lineStart, limit, builder);
+            lineStart = limit;
+        }
+        return lineStart;
+    }
+
+    private void parseLine(ByteBuffer buffer, int start, int end, ForecastIndex.Builder builder)
+            throws IOException {
+        lineNumber++;
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        // Skip header row and rows with fewer than four columns
+        if (lineNumber == 1 || !splitFields(buffer, start, end)) {
+            return;
+        }
+
+        String region = field(buffer, 1);
+        if (regions != null && !regions.contains(region)) {
+            return;
+        }
+        String month = field(buffer, 0);
+        String productName = field(buffer, 2);
+        builder.add(month, region, productName, parseInt(buffer, fieldStart[3], fieldEnd[3]));
+    }
+
+    /**
+     * Locate the first four fields of a line, trimmed and without surrounding quotes
+     *
+     * @return false if the line has fewer than four fields
+     */
+    private boolean splitFields(ByteBuffer buffer, int start, int end) throws IOException {
+        int column = 0;
+        int position = start;
+
+        while (column < COLUMNS) {
+            int fieldEndPosition;
+            int nextPosition;
+            boolean escaped = false;
+
+            int valueStart = skipWhitespace(buffer, position, end);
+            if (valueStart < end && buffer.get(valueStart) == '"') {
+                // Quoted field: runs to the closing quote, "" is an escaped quote
+                int i = valueStart + 1;
+                while (true) {
+                    if (i >= end) {
+                        throw new IOException("Unterminated quoted field at CSV line " + lineNumber);
+                    }
+                    if (buffer.get(i) == '"') {
+                        if (i + 1 < end && buffer.get(i + 1) == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                fieldStart[column] = valueStart + 1;
+                fieldEndPosition = i;
+                nextPosition = indexOf(buffer, (byte) ',', i + 1, end);
+            } else {
+                nextPosition = indexOf(buffer, (byte) ',', position, end);
+                fieldStart[column] = position;
+                fieldEndPosition = nextPosition;
+            }
+
+            fieldEnd[column] = fieldEndPosition;
+            fieldEscaped[column] = escaped;
+            if (!escaped) {
+                trim(buffer, column);
+            }
+            column++;
+
+            if (nextPosition >= end) {
+                break;
+            }
+            position = nextPosition + 1;
+        }
+
+        return column == COLUMNS;
+    }
+
+    private String field(ByteBuffer buffer, int column) {
+        int start = fieldStart[column];
+        int end = fieldEnd[column];
+        if (fieldEscaped[column]) {
+            return new String(copy(buffer, start, end), StandardCharsets.UTF_8)
+                    .replace("\"\"", "\"")
+                    .trim();
+        }
+        return dictionaries[column].get(buffer, start, end);
+    }
+
+    private int parseInt(ByteBuffer buffer, int start, int end) throws IOException {
+        if (fieldEscaped[3] || start >= end) {
+            throw invalidNumber(buffer, start, end);
+        }
+
+        boolean negative = buffer.get(start) == '-';
+        int i = negative || buffer.get(start) == '+' ? start + 1 : start;
+        if (i >= end) {
+            throw invalidNumber(buffer, start, end);
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber(buffer, start, end);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw invalidNumber(buffer, start, end);
+            }
+        }
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw invalidNumber(buffer, start, end);
+        }
+        return (int) value;
+    }
+
+    private IOException invalidNumber(ByteBuffer buffer, int start, int end) {
+        return new IOException("Invalid base_need_xs '"
+                + new String(copy(buffer, start, end), StandardCharsets.UTF_8)
+                + "' at CSV line " + lineNumber);
+    }
+
+    private void trim(ByteBuffer buffer, int column) {
+        int start = fieldStart[column];
+        int end = fieldEnd[column];
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        fieldStart[column] = start;
+        fieldEnd[column] = end;
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int position, int end) {
+        while (position < end && (buffer.get(position) & 0xFF) <= ' ') {
+            position++;
+        }
+        return position;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static byte[] copy(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return bytes;
+    }
+
+    /**
+     * Direct-mapped cache from raw field bytes to their decoded String.
+     * Values that repeat across rows (months, regions, products) are decoded once.
+     */
+    private static final class ColumnDictionary {
+
+        private static final int SLOTS = 4096;
+
+        private final byte[][] keys = new byte[SLOTS][];
+        private final String[] values = new String[SLOTS];
+
+        String get(ByteBuffer buffer, int start, int end) {
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int slot = (hash ^ (hash >>> 16)) & (SLOTS - 1);
+
+            byte[] key = keys[slot];
+            if (key != null && matches(key, buffer, start, end)) {
+                return values[slot];
+            }
+
+            byte[] bytes = copy(buffer, start, end);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            keys[slot] = bytes;
+            values[slot] = value;
+            return value;
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.needcalculation.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges for the in-memory forecast snapshot: populated cells, estimated heap size and version.
+ * Always reads the currently published snapshot, so reloads are reflected immediately.
+ */
+@Component
+@RequiredArgsConstructor
+public class ForecastIndexMetrics implements MeterBinder {
+
+    private final CsvDataLoaderService csvDataLoaderService;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("need.calculation.forecast.cells", csvDataLoaderService,
+                        loader -> loader.getForecastIndex().size())
+                .description("Populated (product, month, region) cells of the forecast snapshot")
+                .register(registry);
+        Gauge.builder("need.calculation.forecast.memory", csvDataLoaderService,
+                        loader -> loader.getForecastIndex().estimatedMemoryBytes())
+                .description("Estimated heap used by the forecast snapshot")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("need.calculation.forecast.version", csvDataLoaderService,
+                        CsvDataLoaderService::getForecastVersion)
+                .description("Number of forecast snapshots published since startup")
+                .register(registry);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.model.ForecastIndex;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned binary snapshot of a {@link ForecastIndex}, stored next to the forecast CSV
+ * so that restarts can skip parsing text.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * int    magic "FCST"
+ * int    format version
+ * long   CRC32C of the source CSV
+ * int    product, month and region counts
+ * string dictionaries (int length + UTF-8 bytes each): products, months, regions
+ * int[]  base needs cube in (product, month, region) order
+ * long   CRC32C of everything above
+ * </pre>
+ *
+ * A snapshot is only used when its source checksum matches the current CSV and its
+ * own checksum is intact; otherwise callers fall back to parsing the CSV.
+ */
+@Slf4j
+public final class ForecastSnapshotFile {
+
+    private static final int MAGIC = 0x46435354; // "FCST"
+    private static final int FORMAT_VERSION = 1;
+    private static final int TRAILER_BYTES = Long.BYTES;
+    private static final long CHECKSUM_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private ForecastSnapshotFile() {
+    }
+
+    /**
+     * Calculate the CRC32C checksum of a file, reading it through memory-mapped windows
+     *
+     * @param path File to checksum
+     * @return Checksum value
+     */
+    public static long checksum(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += CHECKSUM_WINDOW_SIZE) {
+                long length = Math.min(CHECKSUM_WINDOW_SIZE, size - position);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Write the index as a snapshot. The file is written to a temporary sibling and
+     * moved into place, so readers never see a partially written snapshot.
+     *
+     * @param index Index to store
+     * @param sourceChecksum Checksum of the CSV the index was built from
+     * @param path Snapshot file
+     */
+    public static void write(ForecastIndex index, long sourceChecksum, Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sourceChecksum);
+            out.writeInt(index.productCount());
+            out.writeInt(index.monthCount());
+            out.writeInt(index.regionCount());
+
+            for (String product : index.getProducts()) {
+                writeString(out, product);
+            }
+            for (String month : index.getMonths()) {
+                writeString(out, month);
+            }
+            for (String region : index.getRegions()) {
+                writeString(out, region);
+            }
+
+            for (int p = 0; p < index.productCount(); p++) {
+                for (int m = 0; m < index.monthCount(); m++) {
+                    for (int r = 0; r < index.regionCount(); r++) {
+                        out.writeInt(index.baseNeed(p, m, r));
+                    }
+                }
+            }
+
+            // Trailer is not part of its own checksum
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot through a memory mapping
+     *
+     * @param path Snapshot file
+     * @param sourceChecksum Checksum of the current CSV
+     * @return The restored index, or empty if the snapshot is missing, stale or corrupt
+     */
+    public static Optional<ForecastIndex> read(Path path, long sourceChecksum) {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 28 + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                log.warn("Ignoring forecast snapshot {} with unexpected size {}", path, size);
+                return Optional.empty();
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int payloadSize = (int) size - TRAILER_BYTES;
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, payloadSize));
+            if (crc.getValue() != buffer.getLong(payloadSize)) {
+                log.warn("Ignoring corrupt forecast snapshot {}", path);
+                return Optional.empty();
+            }
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring forecast snapshot {} with unknown format", path);
+                return Optional.empty();
+            }
+            if (buffer.getLong() != sourceChecksum) {
+                log.info("Forecast snapshot {} is stale, CSV has changed", path);
+                return Optional.empty();
+            }
+
+            String[] products = new String[buffer.getInt()];
+            String[] months = new String[buffer.getInt()];
+            String[] regions = new String[buffer.getInt()];
+            readStrings(buffer, products);
+            readStrings(buffer, months);
+            readStrings(buffer, regions);
+
+            int cells = (payloadSize - buffer.position()) / Integer.BYTES;
+            int[] baseNeeds = new int[cells];
+            buffer.asIntBuffer().get(baseNeeds);
+
+            return Optional.of(ForecastIndex.of(products, months, regions, baseNeeds));
+
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to read forecast snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void readStrings(ByteBuffer buffer, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.model.ForecastIndex;
+import com.example.needcalculation.model.Store;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Source of forecast data for need calculations.
+ *
+ * Implementations return a {@link ForecastIndex} that covers at least the requested
+ * products and months for the regions of the given stores. The in-memory CSV source
+ * simply returns its full snapshot; a database source fetches just the needed rows.
+ */
+public interface ForecastSource {
+
+    /**
+     * Version returned by sources that cannot detect changes of their data
+     */
+    long UNVERSIONED = ForecastIndex.UNVERSIONED;
+
+    /**
+     * Get a forecast index for one calculation request
+     *
+     * @param productNames Products of the request
+     * @param months Normalized months of the request
+     * @param stores Stores of the request (only their regions are used)
+     * @return Index to resolve all lookups of the request against, stamped with the
+     *         version of the snapshot it was taken from if the source is versioned
+     */
+    ForecastIndex getForecastIndex(Collection<String> productNames, Collection<String> months, List<Store> stores);
+
+    /**
+     * Get the version of the forecast data. It changes whenever different data may be
+     * returned, so results computed under one version can be reused until it changes.
+     *
+     * @return Current version, or {@link #UNVERSIONED} if changes cannot be detected
+     */
+    default long getForecastVersion() {
+        return UNVERSIONED;
+    }
+}
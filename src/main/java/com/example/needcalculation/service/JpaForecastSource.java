@@ -0,0 +1,70 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.entity.ForecastData;
+import com.example.needcalculation.model.ForecastIndex;
+import com.example.needcalculation.model.Store;
+import com.example.needcalculation.repository.ForecastRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Database-backed forecast source, enabled with forecast.source=jpa.
+ *
+ * Instead of one query per store, all rows of a request are fetched with a single
+ * set-based query over the distinct regions of its stores and turned into a small
+ * request-scoped {@link ForecastIndex}. The number of queries therefore depends on
+ * the number of products (in chunks), never on the number of stores.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "forecast.source", havingValue = "jpa")
+@RequiredArgsConstructor
+@Slf4j
+public class JpaForecastSource implements ForecastSource {
+
+    // Keeps IN lists well below database bind parameter limits
+    private static final int MAX_PRODUCTS_PER_QUERY = 1000;
+
+    private final ForecastRepository forecastRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ForecastIndex getForecastIndex(Collection<String> productNames, Collection<String> months,
+                                          List<Store> stores) {
+        Set<String> regions = new HashSet<>();
+        for (Store store : stores) {
+            if (store.getRegion() != null) {
+                regions.add(store.getRegion());
+            }
+        }
+        if (productNames.isEmpty() || months.isEmpty() || regions.isEmpty()) {
+            return ForecastIndex.empty();
+        }
+
+        ForecastIndex.Builder builder = ForecastIndex.builder();
+        List<String> products = new ArrayList<>(new LinkedHashSet<>(productNames));
+
+        for (int from = 0; from < products.size(); from += MAX_PRODUCTS_PER_QUERY) {
+            List<String> chunk = products.subList(from, Math.min(from + MAX_PRODUCTS_PER_QUERY, products.size()));
+            for (ForecastData data : forecastRepository.findByProductsMonthsAndRegions(chunk, months, regions)) {
+                builder.add(data.getMonth(), data.getRegion(), data.getProductName(), data.getBaseNeedXs());
+            }
+        }
+
+        ForecastIndex index = builder.build();
+        log.debug("Fetched {} forecast rows for {} products, {} months and {} regions",
+                index.size(), products.size(), months.size(), regions.size());
+        return index;
+    }
+}
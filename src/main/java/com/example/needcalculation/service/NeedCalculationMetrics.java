@@ -0,0 +1,127 @@
+package com.example.needcalculation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation of the calculation pipeline, exposed at /actuator/prometheus.
+ *
+ * need.calculation.stage        timer per pipeline stage (tag: stage), with percentile histograms
+ * need.calculation.stores       distribution of stores per request
+ * need.calculation.forecast.misses  store lookups without forecast data
+ * need.calculation.store.failures   stores whose calculation failed and fell back to zero
+ * need.calculation.coalesced        requests answered by an identical in-flight calculation
+ * need.calculation.coalesce.timeouts  coalesced requests that stopped waiting and calculated themselves
+ */
+@Component
+public class NeedCalculationMetrics {
+
+    /**
+     * Stages of a calculation, in pipeline order
+     */
+    public enum Stage {
+        VALIDATION("validation"),
+        MONTH_RESOLUTION("month-resolution"),
+        FORECAST_LOAD("forecast-load"),
+        STORE_SIZE_LOOKUP("store-size-lookup"),
+        FORECAST_LOOKUP("forecast-lookup"),
+        RESPONSE_BUILD("response-build");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final DistributionSummary storesPerRequest;
+    private final Counter forecastMisses;
+    private final Counter storeFailures;
+    private final Counter coalesced;
+    private final Counter coalesceTimeouts;
+
+    public NeedCalculationMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("need.calculation.stage")
+                    .description("Time spent per calculation stage")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        storesPerRequest = DistributionSummary.builder("need.calculation.stores")
+                .description("Number of stores per calculation request")
+                .baseUnit("stores")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        forecastMisses = Counter.builder("need.calculation.forecast.misses")
+                .description("Store lookups without forecast data")
+                .register(meterRegistry);
+        storeFailures = Counter.builder("need.calculation.store.failures")
+                .description("Stores whose calculation failed and returned zero")
+                .register(meterRegistry);
+        coalesced = Counter.builder("need.calculation.coalesced")
+                .description("Requests that shared an identical in-flight calculation")
+                .register(meterRegistry);
+        coalesceTimeouts = Counter.builder("need.calculation.coalesce.timeouts")
+                .description("Coalesced requests that stopped waiting and calculated on their own")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a stage that started at the given {@link System#nanoTime()}
+     *
+     * @param stage Stage to record
+     * @param startNanos Start of the stage
+     */
+    public void recordStage(Stage stage, long startNanos) {
+        stageTimers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the total time of a stage that was measured in several parts
+     *
+     * @param stage Stage to record
+     * @param nanos Duration of the stage
+     */
+    public void recordStageDuration(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStoresPerRequest(int storeCount) {
+        storesPerRequest.record(storeCount);
+    }
+
+    public void recordForecastMisses(int count) {
+        if (count > 0) {
+            forecastMisses.increment(count);
+        }
+    }
+
+    public void recordStoreFailure() {
+        storeFailures.increment();
+    }
+
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    public void recordCoalesceTimeout() {
+        coalesceTimeouts.increment();
+    }
+
+    public long getCoalescedCount() {
+        return (long) coalesced.count();
+    }
+
+    public long getCoalesceTimeoutCount() {
+        return (long) coalesceTimeouts.count();
+    }
+}
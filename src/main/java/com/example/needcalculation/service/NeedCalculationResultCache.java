@@ -0,0 +1,297 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.dto.NeedCalculationRequest;
+import com.example.needcalculation.enums.WireFormat;
+import com.example.needcalculation.model.Store;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cache of serialized calculate responses for requests that are sent over and over.
+ *
+ * Requests are keyed on product, normalized month and a 128-bit hash of the store list
+ * (names and regions, in order). Entries are weighed by their JSON size and evicted with
+ * Caffeine's size-aware W-TinyLFU policy once need.calculation.cache.max-bytes is reached.
+ *
+ * The forecast and store configuration versions are part of the key, and the whole cache
+ * is dropped as soon as either version changes, so a reload or store update is never
+ * answered from stale entries. Sources that cannot report a version are not cached.
+ *
+ * Responses are cached per {@link WireFormat}, so binary callers skip serialization too.
+ * Requests with stores on other shards are calculated through {@link ShardRouter} and
+ * not cached, since other shards' forecast versions are not known here.
+ *
+ * Concurrent misses for the same key are coalesced (single flight): the first request
+ * calculates and the others wait for its serialized response, whether or not the result
+ * is cached. Followers get the leader's exception if it fails, and calculate on their own
+ * after need.calculation.coalesce.max-wait-ms.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NeedCalculationResultCache {
+
+    private final ShardRouter shardRouter;
+    private final ForecastSource forecastSource;
+    private final StoreConfigurationService storeConfigurationService;
+    private final ObjectMapper objectMapper;
+    private final NeedCalculationMetrics metrics;
+
+    @Value("${need.calculation.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${need.calculation.cache.max-bytes:67108864}")
+    private long maxBytes = 64L * 1024 * 1024;
+
+    @Value("${need.calculation.coalesce.enabled:true}")
+    private boolean coalesceEnabled = true;
+
+    // How long a coalesced request waits for the in-flight calculation before calculating itself
+    @Value("${need.calculation.coalesce.max-wait-ms:5000}")
+    private long coalesceMaxWaitMs = 5000;
+
+    private Cache<CacheKey, byte[]> cache;
+
+    // Calculations in progress, shared by concurrent requests with the same key
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+
+    // Forecast and store versions of the cached entries
+    private volatile Versions cachedVersions = new Versions(ForecastSource.UNVERSIONED, -1);
+
+    @PostConstruct
+    public void initializeCache() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((CacheKey key, byte[] response) -> key.estimatedSize() + response.length)
+                .recordStats()
+                .build();
+        for (WireFormat format : WireFormat.values()) {
+            mappers.put(format, format.mapper(objectMapper));
+        }
+        log.info("Calculation result cache {} with {} bytes",
+                enabled ? "enabled" : "disabled", maxBytes);
+    }
+
+    /**
+     * Get the JSON response for a calculate request, computing and caching it on a miss
+     *
+     * @param request NeedCalculationRequest containing product and stores
+     * @param includeDiagnostics Whether the response contains the request diagnostics
+     * @return Serialized NeedCalculationResponse
+     */
+    public byte[] getOrCalculate(NeedCalculationRequest request, boolean includeDiagnostics) {
+        return getOrCalculate(request, includeDiagnostics, WireFormat.JSON);
+    }
+
+    /**
+     * Get the response for a calculate request in the given format, computing and caching it on a miss
+     *
+     * @param request NeedCalculationRequest containing product and stores
+     * @param includeDiagnostics Whether the response contains the request diagnostics
+     * @param format Encoding of the response
+     * @return Serialized NeedCalculationResponse
+     */
+    public byte[] getOrCalculate(NeedCalculationRequest request, boolean includeDiagnostics, WireFormat format) {
+        // Read versions before calculating, so an entry is never newer than its key claims
+        Versions versions = new Versions(forecastSource.getForecastVersion(), storeConfigurationService.getVersion());
+        boolean cacheable = enabled && versions.forecastVersion() != ForecastSource.UNVERSIONED
+                && !shardRouter.isRemote(request);
+        if (!cacheable && !coalesceEnabled) {
+            return calculate(request, includeDiagnostics, format);
+        }
+
+        CacheKey key = CacheKey.of(request, includeDiagnostics, format, versions);
+        if (!cacheable) {
+            return calculateOnce(key, request, false);
+        }
+
+        if (!versions.equals(cachedVersions)) {
+            log.debug("Forecast or store configuration changed, invalidating {} cached results",
+                    cache.estimatedSize());
+            cachedVersions = versions;
+            cache.invalidateAll();
+        }
+
+        byte[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (coalesceEnabled) {
+            return calculateOnce(key, request, true);
+        }
+        byte[] response = calculate(key, request);
+        cache.put(key, response);
+        return response;
+    }
+
+    /**
+     * Calculate a response, or wait for the identical calculation already in flight.
+     * Only the calculating request writes the cache, before it leaves the in-flight map,
+     * so an identical request always finds either the calculation or its cached result.
+     *
+     * @param cacheable Whether the response is put into the cache
+     * @throws RuntimeException the exception of the calculation, also for waiting requests
+     */
+    private byte[] calculateOnce(CacheKey key, NeedCalculationRequest request, boolean cacheable) {
+        CompletableFuture<byte[]> flight = new CompletableFuture<>();
+        CompletableFuture<byte[]> leader = inFlight.putIfAbsent(key, flight);
+
+        if (leader == null) {
+            try {
+                // The previous calculation may have finished since the cache was checked; not counted as a lookup
+                byte[] response = cacheable ? cache.asMap().get(key) : null;
+                if (response == null) {
+                    response = calculate(key, request);
+                    if (cacheable) {
+                        cache.put(key, response);
+                    }
+                }
+                flight.complete(response);
+                return response;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+
+        metrics.recordCoalesced();
+        try {
+            return leader.get(coalesceMaxWaitMs, TimeUnit.MILLISECONDS);
+
+        } catch (TimeoutException e) {
+            metrics.recordCoalesceTimeout();
+            log.warn("Identical calculation for product {} still running after {} ms, calculating separately",
+                    request.getProductName(), coalesceMaxWaitMs);
+            return calculate(key, request);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical calculation", e);
+        }
+    }
+
+    /**
+     * @return Calculations currently in progress
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return Hit, miss and eviction statistics since startup
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return Approximate number of cached responses
+     */
+    public long getEstimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Drop all cached responses
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private byte[] calculate(CacheKey key, NeedCalculationRequest request) {
+        return calculate(request, key.includeDiagnostics(), key.format());
+    }
+
+    private byte[] calculate(NeedCalculationRequest request, boolean includeDiagnostics, WireFormat format) {
+        try {
+            return mappers.get(format).writeValueAsBytes(
+                    shardRouter.calculateNeeds(request, includeDiagnostics));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Versions(long forecastVersion, long storeVersion) {
+    }
+
+    /**
+     * Normalized request. The store list is reduced to its size and a 128-bit hash,
+     * so keys stay small no matter how many stores a request has.
+     */
+    private record CacheKey(String productName, String month, boolean includeDiagnostics, WireFormat format,
+                            int storeCount,
+                            long storesHashHigh, long storesHashLow,
+                            long forecastVersion, long storeVersion) {
+
+        static CacheKey of(NeedCalculationRequest request, boolean includeDiagnostics, WireFormat format,
+                           Versions versions) {
+            List<Store> stores = request.getStores();
+            long high = 0xCBF29CE484222325L;
+            long low = 0x9E3779B97F4A7C15L;
+
+            for (Store store : stores) {
+                for (String value : new String[]{store.getStoreName(), store.getRegion()}) {
+                    if (value == null) {
+                        high = (high ^ 0xFFFF_FFFFL) * 0x100000001B3L;
+                        low = Long.rotateLeft(low ^ 0xFFFF_FFFFL, 27) * 0xBF58476D1CE4E5B9L;
+                        continue;
+                    }
+                    for (int i = 0; i < value.length(); i++) {
+                        char c = value.charAt(i);
+                        high = (high ^ c) * 0x100000001B3L;
+                        low = Long.rotateLeft(low ^ c, 27) * 0xBF58476D1CE4E5B9L;
+                    }
+                    // Length separates "ab","c" from "a","bc"
+                    high = (high ^ (0x1_0000L + value.length())) * 0x100000001B3L;
+                    low = Long.rotateLeft(low ^ (0x1_0000L + value.length()), 27) * 0xBF58476D1CE4E5B9L;
+                }
+            }
+
+            return new CacheKey(request.getProductName(),
+                    NeedCalculationService.determineMonth(request.getMonth()),
+                    includeDiagnostics, format, stores.size(), mix(high), mix(low),
+                    versions.forecastVersion(), versions.storeVersion());
+        }
+
+        int estimatedSize() {
+            return 64 + 2 * (productName.length() + month.length());
+        }
+
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            hash *= 0xC4CEB9FE1A85EC53L;
+            return hash ^ (hash >>> 33);
+        }
+    }
+}
@@ -1,17 +1,33 @@
 package com.example.needcalculation.service;
 
+import com.example.needcalculation.dto.BatchNeedCalculationRequest;
+import com.example.needcalculation.dto.BatchNeedCalculationResponse;
+import com.example.needcalculation.dto.CalculationDiagnostics;
+import com.example.needcalculation.dto.ColumnarNeedCalculationResponse;
+import com.example.needcalculation.dto.HorizonNeedCalculationRequest;
+import com.example.needcalculation.dto.HorizonNeedCalculationResponse;
 import com.example.needcalculation.dto.NeedCalculationRequest;
 import com.example.needcalculation.dto.NeedCalculationResponse;
-import com.example.needcalculation.entity.ForecastData;
 import com.example.needcalculation.enums.StoreSize;
+import com.example.needcalculation.model.ForecastIndex;
 import com.example.needcalculation.model.Store;
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.time.Month;
 import java.time.format.TextStyle;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 /**
  * Core service containing the business logic for need calculation.
@@ -19,14 +35,52 @@ import java.util.*;
  * 1. Creates SKUs (Stock Keeping Units) from product and store combinations
  * 2. Calculates needs based on forecast data and store size
  * 3. Returns the calculated needs for each SKU
+ *
+ * Store lists with at least {@code need.calculation.parallel-threshold} entries are
+ * split across a dedicated fork-join pool; smaller requests stay on the request thread.
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class NeedCalculationService {
 
+    // Per-store outcome of a calculation
+    private static final byte OUTCOME_OK = 0;
+    private static final byte OUTCOME_MISSING = 1;
+    private static final byte OUTCOME_FAILED = 2;
+
     private final CsvDataLoaderService csvDataLoaderService;
     private final StoreConfigurationService storeConfigurationService;
+    private final ForecastSource forecastSource;
+    private final NeedCalculationMetrics metrics;
+
+    // Minimum number of stores before a request is calculated in parallel (0 disables)
+    @Value("${need.calculation.parallel-threshold:2048}")
+    private int parallelThreshold = 2048;
+
+    // Number of fork-join workers (0 uses the number of available processors)
+    @Value("${need.calculation.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool calculationPool;
+
+    /**
+     * Create the fork-join pool used for large store lists
+     */
+    @PostConstruct
+    public void initializeCalculationPool() {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        calculationPool = new ForkJoinPool(workers);
+        log.info("Initialized calculation pool with {} workers (parallel threshold: {} stores)",
+                workers, parallelThreshold);
+    }
+
+    @PreDestroy
+    public void shutdownCalculationPool() {
+        if (calculationPool != null) {
+            calculationPool.shutdown();
+        }
+    }
 
     /**
      * Main method to calculate needs for given request
@@ -35,83 +89,573 @@ public class NeedCalculationService {
      * @return NeedCalculationResponse with calculated needs per SKU
      */
     public NeedCalculationResponse calculateNeeds(NeedCalculationRequest request) {
+        return calculateNeeds(request, false);
+    }
+
+    /**
+     * Calculate needs for given request, optionally returning the request's diagnostics
+     *
+     * @param request NeedCalculationRequest containing product and stores
+     * @param includeDiagnostics Whether to add missing forecasts and failed stores to the response
+     * @return NeedCalculationResponse with calculated needs per SKU
+     */
+    public NeedCalculationResponse calculateNeeds(NeedCalculationRequest request, boolean includeDiagnostics) {
+        return calculateNeeds(request, includeDiagnostics, this::resolveStoreSize);
+    }
+
+    /**
+     * Calculate the stores forwarded by a routing instance with the store sizes it resolved,
+     * so a store gets the same size whichever shard owns its region. Stores without a size
+     * are looked up in this instance's configuration.
+     *
+     * @param request NeedCalculationRequest with stores of the regions owned by this shard
+     * @return NeedCalculationResponse with calculated needs per SKU and the diagnostics
+     */
+    public NeedCalculationResponse calculateForwardedNeeds(NeedCalculationRequest request) {
+        return calculateNeeds(request, true, this::forwardedStoreSize);
+    }
+
+    private NeedCalculationResponse calculateNeeds(NeedCalculationRequest request, boolean includeDiagnostics,
+                                                   Function<Store, StoreSize> storeSizes) {
+        List<Map<String, NeedCalculationResponse.SkuNeed>> needPerSKU =
+                new ArrayList<>(request.getStores().size());
+
+        StoreNeeds storeNeeds;
+        try {
+            storeNeeds = writeNeeds(request, storeSizes, (sku, need) -> {
+                // Create response entry
+                Map<String, NeedCalculationResponse.SkuNeed> skuNeedMap = new HashMap<>();
+                skuNeedMap.put(sku, new NeedCalculationResponse.SkuNeed(need));
+                needPerSKU.add(skuNeedMap);
+            });
+        } catch (IOException e) {
+            // Collecting into a list never fails
+            throw new UncheckedIOException(e);
+        }
+
+        return new NeedCalculationResponse(needPerSKU, storeNeeds.forecastVersion(),
+                includeDiagnostics ? storeNeeds.diagnostics() : null);
+    }
+
+    /**
+     * Calculate needs for given request and hand each SKU's need to the writer
+     * in store order. Below the parallel threshold every store is written as soon as
+     * it is calculated; larger lists are calculated on the pool into a primitive array
+     * first. SKU strings are only built while writing, so no per-SKU objects are accumulated.
+     *
+     * @param request NeedCalculationRequest containing product and stores
+     * @param writer Receives every SKU and its need
+     * @return Diagnostics of the request
+     * @throws IOException if the writer fails
+     */
+    public CalculationDiagnostics streamNeeds(NeedCalculationRequest request, SkuNeedWriter writer)
+            throws IOException {
+        return writeNeeds(request, this::resolveStoreSize, writer).diagnostics();
+    }
+
+    private StoreNeeds writeNeeds(NeedCalculationRequest request, Function<Store, StoreSize> storeSizes,
+                                  SkuNeedWriter writer) throws IOException {
+        return calculateStoreNeeds(request, indexedStores(request.getStores()), storeSizes, writer);
+    }
+
+    /**
+     * Calculate needs for given request into the compact columnar response:
+     * the product once, store names and an int array of needs in store order
+     *
+     * @param request NeedCalculationRequest containing product and stores
+     * @return ColumnarNeedCalculationResponse with one need per store
+     */
+    public ColumnarNeedCalculationResponse calculateColumnarNeeds(NeedCalculationRequest request) {
+        List<Store> stores = indexedStores(request.getStores());
+        StoreNeeds storeNeeds = calculateStoreNeeds(request, stores);
+
+        long start = System.nanoTime();
+        List<String> storeNames = new ArrayList<>(stores.size());
+        for (Store store : stores) {
+            storeNames.add(store.getStoreName());
+        }
+        ColumnarNeedCalculationResponse response = new ColumnarNeedCalculationResponse(
+                request.getProductName(), storeNeeds.diagnostics().getMonth(), storeNeeds.forecastVersion(),
+                storeNames, storeNeeds.needs());
+        metrics.recordStage(NeedCalculationMetrics.Stage.RESPONSE_BUILD, start);
+        return response;
+    }
+
+    private static List<Store> indexedStores(List<Store> stores) {
+        return stores instanceof RandomAccess ? stores : new ArrayList<>(stores);
+    }
+
+    private StoreNeeds calculateStoreNeeds(NeedCalculationRequest request, List<Store> stores) {
+        try {
+            return calculateStoreNeeds(request, stores, this::resolveStoreSize, null);
+        } catch (IOException e) {
+            // Without a writer nothing is written
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calculate the needs of all stores in store order: resolve product and month once,
+     * then every store's size, then every store's need. Large store lists use the pool
+     * and are handed to the writer afterwards; smaller ones are calculated and written
+     * store by store, so the first SKU is written before the last store is calculated.
+     * Per-store outcomes are recorded in an array and summarized once afterwards.
+     *
+     * @param storeSizes Resolves the size of a store, null if it failed
+     * @param writer Receives every SKU and its need, or null
+     */
+    private StoreNeeds calculateStoreNeeds(NeedCalculationRequest request, List<Store> stores,
+                                           Function<Store, StoreSize> storeSizes,
+                                           SkuNeedWriter writer) throws IOException {
         log.info("Calculating needs for product: {} with {} stores",
-                request.getProductName(), request.getStores().size());
+                request.getProductName(), stores.size());
+        metrics.recordStoresPerRequest(stores.size());
 
         // Determine the month for calculation
+        long start = System.nanoTime();
         String month = determineMonth(request.getMonth());
         log.debug("Using month: {} for calculation", month);
+        metrics.recordStage(NeedCalculationMetrics.Stage.MONTH_RESOLUTION, start);
+
+        // Resolve product and month ids once; only the region varies per store
+        start = System.nanoTime();
+        ForecastIndex forecastIndex = forecastSource.getForecastIndex(
+                List.of(request.getProductName()), List.of(month), stores);
+        ForecastCoordinates coordinates = new ForecastCoordinates(
+                forecastIndex,
+                request.getProductName(),
+                forecastIndex.productId(request.getProductName()),
+                month,
+                forecastIndex.monthId(month)
+        );
+        metrics.recordStage(NeedCalculationMetrics.Stage.FORECAST_LOAD, start);
+
+        byte[] outcomes = new byte[stores.size()];
+        int[] needs = new int[stores.size()];
 
-        // Process each store and calculate needs
-        List<Map<String, NeedCalculationResponse.SkuNeed>> needPerSKU = new ArrayList<>();
+        if (writer != null && !isParallel(stores.size())) {
+            writeStoreByStore(coordinates, stores, storeSizes, outcomes, needs, writer);
+            return new StoreNeeds(needs, summarize(coordinates, stores, outcomes), forecastIndex.getVersion());
+        }
 
-        for (Store store : request.getStores()) {
-            try {
-                // Get store size
-                StoreSize storeSize = storeConfigurationService.getStoreSize(store.getStoreName());
-                store.setStoreSize(storeSize.getCode());
+        start = System.nanoTime();
+        StoreSize[] resolvedSizes = new StoreSize[stores.size()];
+        forEachStore(stores.size(), i -> {
+            resolvedSizes[i] = storeSizes.apply(stores.get(i));
+            if (resolvedSizes[i] == null) {
+                outcomes[i] = OUTCOME_FAILED;
+            }
+        });
+        metrics.recordStage(NeedCalculationMetrics.Stage.STORE_SIZE_LOOKUP, start);
 
-                // Calculate need for this SKU
-                Integer need = calculateNeedForSKU(
-                        request.getProductName(),
-                        store,
-                        month,
-                        storeSize
-                );
+        start = System.nanoTime();
+        forEachStore(stores.size(), i -> {
+            if (outcomes[i] == OUTCOME_OK) {
+                outcomes[i] = calculateNeedForStore(coordinates, stores.get(i), resolvedSizes[i], needs, i);
+            }
+        });
+        metrics.recordStage(NeedCalculationMetrics.Stage.FORECAST_LOOKUP, start);
 
+        if (writer != null) {
+            start = System.nanoTime();
+            for (int i = 0; i < needs.length; i++) {
                 // Create SKU identifier (product@store)
-                String sku = createSKU(request.getProductName(), store.getStoreName());
+                writer.write(createSKU(coordinates.productName(), stores.get(i).getStoreName()), needs[i]);
+            }
+            metrics.recordStage(NeedCalculationMetrics.Stage.RESPONSE_BUILD, start);
+        }
 
-                // Create response entry
-                Map<String, NeedCalculationResponse.SkuNeed> skuNeedMap = new HashMap<>();
-                skuNeedMap.put(sku, new NeedCalculationResponse.SkuNeed(need));
-                needPerSKU.add(skuNeedMap);
+        return new StoreNeeds(needs, summarize(coordinates, stores, outcomes), forecastIndex.getVersion());
+    }
+
+    /**
+     * Sequential path of a written calculation: resolve, calculate and write each store
+     * before the next one. Stage times are summed over the stores and recorded once.
+     */
+    private void writeStoreByStore(ForecastCoordinates coordinates, List<Store> stores,
+                                   Function<Store, StoreSize> storeSizes, byte[] outcomes,
+                                   int[] needs, SkuNeedWriter writer) throws IOException {
+        long sizeLookupNanos = 0;
+        long forecastLookupNanos = 0;
+        long writeNanos = 0;
 
-                log.debug("Calculated need for SKU {}: {}", sku, need);
+        for (int i = 0; i < needs.length; i++) {
+            Store store = stores.get(i);
+            long start = System.nanoTime();
+            StoreSize storeSize = storeSizes.apply(store);
+            long resolved = System.nanoTime();
+            outcomes[i] = storeSize == null
+                    ? OUTCOME_FAILED
+                    : calculateNeedForStore(coordinates, store, storeSize, needs, i);
+            long calculated = System.nanoTime();
+            // Create SKU identifier (product@store)
+            writer.write(createSKU(coordinates.productName(), store.getStoreName()), needs[i]);
 
-            } catch (Exception e) {
-                log.error("Error calculating need for store {}: {}",
-                        store.getStoreName(), e.getMessage());
-                // Add zero need for failed calculations
-                String sku = createSKU(request.getProductName(), store.getStoreName());
-                Map<String, NeedCalculationResponse.SkuNeed> skuNeedMap = new HashMap<>();
-                skuNeedMap.put(sku, new NeedCalculationResponse.SkuNeed(0));
-                needPerSKU.add(skuNeedMap);
+            sizeLookupNanos += resolved - start;
+            forecastLookupNanos += calculated - resolved;
+            writeNanos += System.nanoTime() - calculated;
+        }
+
+        metrics.recordStageDuration(NeedCalculationMetrics.Stage.STORE_SIZE_LOOKUP, sizeLookupNanos);
+        metrics.recordStageDuration(NeedCalculationMetrics.Stage.FORECAST_LOOKUP, forecastLookupNanos);
+        metrics.recordStageDuration(NeedCalculationMetrics.Stage.RESPONSE_BUILD, writeNanos);
+    }
+
+    /**
+     * Collect the per-store outcomes into one diagnostics summary and log it once
+     */
+    private CalculationDiagnostics summarize(ForecastCoordinates coordinates, List<Store> stores, byte[] outcomes) {
+        int missing = 0;
+        int failed = 0;
+        Set<String> missingRegions = new TreeSet<>();
+        List<String> failedStores = new ArrayList<>();
+
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == OUTCOME_MISSING) {
+                missing++;
+                missingRegions.add(String.valueOf(stores.get(i).getRegion()));
+            } else if (outcomes[i] == OUTCOME_FAILED) {
+                failed++;
+                if (failedStores.size() < CalculationDiagnostics.MAX_FAILED_STORES) {
+                    failedStores.add(stores.get(i).getStoreName());
+                }
+            }
+        }
+
+        CalculationDiagnostics diagnostics = new CalculationDiagnostics(
+                coordinates.productName(),
+                coordinates.month(),
+                coordinates.productId() != ForecastIndex.UNKNOWN_ID,
+                coordinates.monthId() != ForecastIndex.UNKNOWN_ID,
+                missing,
+                new ArrayList<>(missingRegions),
+                failed,
+                failedStores
+        );
+
+        if (missing > 0) {
+            log.warn("No forecast data found for product: {}, month: {} in {} of {} stores (regions: {})",
+                    coordinates.productName(), coordinates.month(), missing, outcomes.length, missingRegions);
+            metrics.recordForecastMisses(missing);
+        }
+        if (failed > 0) {
+            log.error("Calculation failed for {} of {} stores, returned zero for: {}",
+                    failed, outcomes.length, failedStores);
+        }
+        return diagnostics;
+    }
+
+    /**
+     * Run the action for every store index; each index writes only its own slots,
+     * so the result order is the store order regardless of scheduling
+     */
+    private void forEachStore(int storeCount, IntConsumer action) {
+        if (isParallel(storeCount)) {
+            calculationPool.invoke(new StoreTask(action, 0, storeCount, leafSize(storeCount)));
+        } else {
+            for (int i = 0; i < storeCount; i++) {
+                action.accept(i);
             }
         }
+    }
 
-        return new NeedCalculationResponse(needPerSKU);
+    private boolean isParallel(int storeCount) {
+        return calculationPool != null && parallelThreshold > 0 && storeCount >= parallelThreshold;
     }
 
     /**
-     * Calculate need for a specific SKU (product-store combination)
+     * Split so that every worker gets a few chunks to balance uneven stores
+     */
+    private int leafSize(int storeCount) {
+        return Math.max(256, storeCount / (calculationPool.getParallelism() * 4));
+    }
+
+    /**
+     * Fork-join task running an action for the store indexes [from, to)
+     */
+    private static final class StoreTask extends RecursiveAction {
+
+        private final IntConsumer action;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private StoreTask(IntConsumer action, int from, int to, int leafSize) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new StoreTask(action, from, middle, leafSize),
+                    new StoreTask(action, middle, to, leafSize)
+            );
+        }
+    }
+
+    /**
+     * Look up the size of a store and record it on the store
      *
-     * @param productName Name of the product
      * @param store Store information
-     * @param month Month for calculation
+     * @return Store size, or null if the lookup failed
+     */
+    private StoreSize resolveStoreSize(Store store) {
+        try {
+            StoreSize storeSize = storeConfigurationService.getStoreSize(store.getStoreName());
+            store.setStoreSize(storeSize.getCode());
+            return storeSize;
+
+        } catch (Exception e) {
+            // Summarized once per request
+            log.debug("Error resolving store {}: {}", store.getStoreName(), e.getMessage());
+            metrics.recordStoreFailure();
+            return null;
+        }
+    }
+
+    /**
+     * Use the size a routing instance sent with the store, or look it up if there is none
+     *
+     * @param store Forwarded store information
+     * @return Store size, or null if the size is invalid or the lookup failed
+     */
+    private StoreSize forwardedStoreSize(Store store) {
+        if (store.getStoreSize() == null) {
+            return resolveStoreSize(store);
+        }
+        try {
+            return StoreSize.fromCode(store.getStoreSize());
+
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid forwarded size of store {}: {}", store.getStoreName(), e.getMessage());
+            metrics.recordStoreFailure();
+            return null;
+        }
+    }
+
+    /**
+     * Calculate the need of one store into needs[index], falling back to zero if the calculation fails
+     *
+     * @param coordinates Resolved product and month of the request
+     * @param store Store information
      * @param storeSize Size of the store
-     * @return Calculated need value
+     * @param needs Needs of the request
+     * @param index Index of the store
+     * @return Outcome of the calculation
+     */
+    private byte calculateNeedForStore(ForecastCoordinates coordinates, Store store, StoreSize storeSize,
+                                       int[] needs, int index) {
+        try {
+            // Size factor and rounding are already applied in the index
+            ForecastIndex forecastIndex = coordinates.forecastIndex();
+            int need = forecastIndex.need(
+                    coordinates.productId(),
+                    coordinates.monthId(),
+                    forecastIndex.regionId(store.getRegion()),
+                    storeSize
+            );
+            if (need == ForecastIndex.NO_FORECAST) {
+                // Zero need, reported in the request summary
+                return OUTCOME_MISSING;
+            }
+            needs[index] = need;
+            return OUTCOME_OK;
+
+        } catch (Exception e) {
+            log.debug("Error calculating need for store {}: {}", store.getStoreName(), e.getMessage());
+            metrics.recordStoreFailure();
+            return OUTCOME_FAILED;
+        }
+    }
+
+    /**
+     * Calculate needs for every product x store x month combination of a batch request.
+     * Store sizes and regions are resolved once and reused for every product and month.
+     *
+     * @param request BatchNeedCalculationRequest containing products, stores and months
+     * @return BatchNeedCalculationResponse with one needs array per product and month
+     */
+    public BatchNeedCalculationResponse calculateBatchNeeds(BatchNeedCalculationRequest request) {
+        List<Store> stores = request.getStores();
+        log.info("Calculating batch needs for {} products with {} stores",
+                request.getProductNames().size(), stores.size());
+
+        metrics.recordStoresPerRequest(stores.size());
+
+        long start = System.nanoTime();
+        List<String> months = determineMonths(request.getMonths());
+        metrics.recordStage(NeedCalculationMetrics.Stage.MONTH_RESOLUTION, start);
+
+        start = System.nanoTime();
+        ForecastIndex forecastIndex = forecastSource.getForecastIndex(request.getProductNames(), months, stores);
+        metrics.recordStage(NeedCalculationMetrics.Stage.FORECAST_LOAD, start);
+
+        // Resolve every store once; a null size marks a store that failed
+        start = System.nanoTime();
+        List<String> storeNames = new ArrayList<>(stores.size());
+        StoreSize[] storeSizes = new StoreSize[stores.size()];
+        int[] regionIds = new int[stores.size()];
+        List<String> failedStores = new ArrayList<>();
+        for (int i = 0; i < stores.size(); i++) {
+            Store store = stores.get(i);
+            storeNames.add(store.getStoreName());
+            regionIds[i] = forecastIndex.regionId(store.getRegion());
+            storeSizes[i] = resolveStoreSize(store);
+            if (storeSizes[i] == null) {
+                failedStores.add(store.getStoreName());
+            }
+        }
+        if (!failedStores.isEmpty()) {
+            log.error("Store resolution failed for {} of {} stores, returned zero for: {}",
+                    failedStores.size(), stores.size(),
+                    failedStores.subList(0, Math.min(failedStores.size(), CalculationDiagnostics.MAX_FAILED_STORES)));
+        }
+        metrics.recordStage(NeedCalculationMetrics.Stage.STORE_SIZE_LOOKUP, start);
+
+        start = System.nanoTime();
+        List<BatchNeedCalculationResponse.ProductNeeds> productNeeds =
+                new ArrayList<>(request.getProductNames().size() * months.size());
+
+        for (String productName : request.getProductNames()) {
+            int productId = forecastIndex.productId(productName);
+
+            for (String month : months) {
+                int monthId = forecastIndex.monthId(month);
+                int[] needs = new int[storeSizes.length];
+                int missing = 0;
+
+                for (int i = 0; i < storeSizes.length; i++) {
+                    int need = storeSizes[i] != null
+                            ? forecastIndex.need(productId, monthId, regionIds[i], storeSizes[i])
+                            : forecastIndex.baseNeed(productId, monthId, regionIds[i]);
+                    if (need == ForecastIndex.NO_FORECAST) {
+                        missing++;
+                    } else if (storeSizes[i] != null) {
+                        needs[i] = need;
+                    }
+                }
+
+                if (missing > 0) {
+                    log.warn("No forecast data found for product: {}, month: {} in {} of {} stores",
+                            productName, month, missing, storeSizes.length);
+                    metrics.recordForecastMisses(missing);
+                }
+                productNeeds.add(new BatchNeedCalculationResponse.ProductNeeds(productName, month, needs));
+            }
+        }
+        metrics.recordStage(NeedCalculationMetrics.Stage.FORECAST_LOOKUP, start);
+
+        return new BatchNeedCalculationResponse(storeNames, forecastIndex.getVersion(), productNeeds);
+    }
+
+    /**
+     * Calculate the needs of one product for several months in one pass.
+     * Store sizes and regions are resolved once; every store then reads all months
+     * from the forecast index into its own needs vector.
+     *
+     * @param request HorizonNeedCalculationRequest containing product, stores and months
+     * @return HorizonNeedCalculationResponse with one needs vector per SKU
+     * @throws IllegalArgumentException if the month range is incomplete or names an unknown month
      */
-    private Integer calculateNeedForSKU(String productName, Store store,
-                                        String month, StoreSize storeSize) {
-        // Find forecast data for the given product, month, and region
-        Optional<ForecastData> forecastDataOpt = csvDataLoaderService
-                .findByProductMonthAndRegion(productName, month, store.getRegion());
+    public HorizonNeedCalculationResponse calculateHorizonNeeds(HorizonNeedCalculationRequest request) {
+        List<Store> stores = indexedStores(request.getStores());
+        String productName = request.getProductName();
+        log.info("Calculating horizon needs for product: {} with {} stores",
+                productName, stores.size());
+        metrics.recordStoresPerRequest(stores.size());
 
-        if (forecastDataOpt.isEmpty()) {
-            log.warn("No forecast data found for product: {}, month: {}, region: {}",
-                    productName, month, store.getRegion());
-            return 0;
+        long start = System.nanoTime();
+        List<String> months = determineHorizonMonths(request);
+        metrics.recordStage(NeedCalculationMetrics.Stage.MONTH_RESOLUTION, start);
+
+        start = System.nanoTime();
+        ForecastIndex forecastIndex = forecastSource.getForecastIndex(List.of(productName), months, stores);
+        int productId = forecastIndex.productId(productName);
+        int[] monthIds = new int[months.size()];
+        for (int m = 0; m < monthIds.length; m++) {
+            monthIds[m] = forecastIndex.monthId(months.get(m));
         }
+        metrics.recordStage(NeedCalculationMetrics.Stage.FORECAST_LOAD, start);
 
-        ForecastData forecastData = forecastDataOpt.get();
-        Integer baseNeed = forecastData.getBaseNeedXs();
+        start = System.nanoTime();
+        StoreSize[] storeSizes = new StoreSize[stores.size()];
+        forEachStore(stores.size(), i -> storeSizes[i] = resolveStoreSize(stores.get(i)));
+        metrics.recordStage(NeedCalculationMetrics.Stage.STORE_SIZE_LOOKUP, start);
 
-        // Apply multiplication factor based on store size
-        Double multipliedNeed = baseNeed * storeSize.getMultiplicationFactor();
+        // Failed stores keep a vector of zeros; missing cells are counted per store
+        start = System.nanoTime();
+        int[][] needs = new int[stores.size()][monthIds.length];
+        int[] missing = new int[stores.size()];
+        forEachStore(stores.size(), i -> {
+            if (storeSizes[i] == null) {
+                return;
+            }
+            int regionId = forecastIndex.regionId(stores.get(i).getRegion());
+            for (int m = 0; m < monthIds.length; m++) {
+                int need = forecastIndex.need(productId, monthIds[m], regionId, storeSizes[i]);
+                if (need == ForecastIndex.NO_FORECAST) {
+                    missing[i]++;
+                } else {
+                    needs[i][m] = need;
+                }
+            }
+        });
+        metrics.recordStage(NeedCalculationMetrics.Stage.FORECAST_LOOKUP, start);
 
-        // Round to nearest integer
-        return Math.round(multipliedNeed.floatValue());
+        start = System.nanoTime();
+        List<Map<String, int[]>> needPerSKU = new ArrayList<>(stores.size());
+        int missingCells = 0;
+        int failed = 0;
+        for (int i = 0; i < stores.size(); i++) {
+            needPerSKU.add(Map.of(createSKU(productName, stores.get(i).getStoreName()), needs[i]));
+            missingCells += missing[i];
+            if (storeSizes[i] == null) {
+                failed++;
+            }
+        }
+        metrics.recordStage(NeedCalculationMetrics.Stage.RESPONSE_BUILD, start);
+
+        if (missingCells > 0) {
+            log.warn("No forecast data found for product: {} in {} of {} store months ({})",
+                    productName, missingCells, stores.size() * months.size(), months);
+            metrics.recordForecastMisses(missingCells);
+        }
+        if (failed > 0) {
+            log.error("Store resolution failed for {} of {} stores, returned zero", failed, stores.size());
+        }
+        return new HorizonNeedCalculationResponse(productName, forecastIndex.getVersion(), months, needPerSKU);
+    }
+
+    /**
+     * Receives calculated needs from {@link #streamNeeds(NeedCalculationRequest, SkuNeedWriter)}
+     */
+    @FunctionalInterface
+    public interface SkuNeedWriter {
+        void write(String sku, int need) throws IOException;
+    }
+
+    /**
+     * Needs of a request in store order together with its diagnostics
+     */
+    private record StoreNeeds(int[] needs, CalculationDiagnostics diagnostics, long forecastVersion) {
+    }
+
+    /**
+     * Product and month of a request, resolved against one forecast index
+     */
+    private record ForecastCoordinates(ForecastIndex forecastIndex,
+                                       String productName, int productId,
+                                       String month, int monthId) {
     }
 
     /**
@@ -123,7 +667,7 @@ public class NeedCalculationService {
      * @return SKU identifier
      */
     private String createSKU(String productName, String storeName) {
-        return String.format("%s@%s", productName, storeName);
+        return productName + '@' + storeName;
     }
 
     /**
@@ -133,7 +677,7 @@ public class NeedCalculationService {
      * @param requestMonth Month from request (can be null)
      * @return Month name to use for calculation
      */
-    private String determineMonth(String requestMonth) {
+    static String determineMonth(String requestMonth) {
         if (requestMonth != null && !requestMonth.trim().isEmpty()) {
             // Capitalize first letter
             return requestMonth.substring(0, 1).toUpperCase() +
@@ -145,15 +689,85 @@ public class NeedCalculationService {
                 .getDisplayName(TextStyle.FULL, Locale.ENGLISH);
     }
 
+    /**
+     * Determine the months to use for a batch calculation.
+     * Months are normalized like {@link #determineMonth(String)} and de-duplicated;
+     * the current month is used if none are provided.
+     *
+     * @param requestMonths Months from request (can be null)
+     * @return Month names in request order
+     */
+    static List<String> determineMonths(List<String> requestMonths) {
+        Set<String> months = new LinkedHashSet<>();
+        if (requestMonths != null) {
+            for (String requestMonth : requestMonths) {
+                if (requestMonth != null && !requestMonth.trim().isEmpty()) {
+                    months.add(determineMonth(requestMonth));
+                }
+            }
+        }
+        if (months.isEmpty()) {
+            months.add(determineMonth(null));
+        }
+        return new ArrayList<>(months);
+    }
+
+    /**
+     * Determine the months of a horizon calculation: the inclusive range if one is given,
+     * otherwise the month list like a batch calculation. Both forms must name calendar months,
+     * so a horizon has at most 12 months.
+     *
+     * @param request HorizonNeedCalculationRequest with months or a month range
+     * @return Month names in calculation order
+     * @throws IllegalArgumentException if the range is incomplete or a month is unknown
+     */
+    static List<String> determineHorizonMonths(HorizonNeedCalculationRequest request) {
+        boolean hasFrom = request.getFromMonth() != null && !request.getFromMonth().isBlank();
+        boolean hasTo = request.getToMonth() != null && !request.getToMonth().isBlank();
+        if (!hasFrom && !hasTo) {
+            List<String> months = determineMonths(request.getMonths());
+            for (String month : months) {
+                parseMonth(month);
+            }
+            return months;
+        }
+        if (!hasFrom || !hasTo) {
+            throw new IllegalArgumentException("Month range requires both fromMonth and toMonth");
+        }
+
+        Month from = parseMonth(request.getFromMonth());
+        Month to = parseMonth(request.getToMonth());
+        List<String> months = new ArrayList<>(12);
+        for (Month month = from; ; month = month.plus(1)) {
+            months.add(month.getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+            if (month == to) {
+                return months;
+            }
+        }
+    }
+
+    /**
+     * Parse a month name like {@link #determineMonth(String)}, rejecting anything that
+     * is not a calendar month
+     */
+    static Month parseMonth(String month) {
+        String name = determineMonth(month);
+        for (Month candidate : Month.values()) {
+            if (candidate.getDisplayName(TextStyle.FULL, Locale.ENGLISH).equals(name)) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Invalid month: " + month);
+    }
+
     /**
      * Get available months from forecast data
      *
      * @return List of available months
      */
     public List<String> getAvailableMonths() {
-        return csvDataLoaderService.findAll().stream()
-                .map(ForecastData::getMonth)
-                .distinct()
+        // Months are already distinct in the index dictionary
+        return csvDataLoaderService.getForecastIndex().getMonths().stream()
                 .sorted()
                 .toList();
     }
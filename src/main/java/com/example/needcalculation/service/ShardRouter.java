@@ -0,0 +1,538 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.dto.BatchNeedCalculationRequest;
+import com.example.needcalculation.dto.BatchNeedCalculationResponse;
+import com.example.needcalculation.dto.CalculationDiagnostics;
+import com.example.needcalculation.dto.ColumnarNeedCalculationResponse;
+import com.example.needcalculation.dto.HorizonNeedCalculationRequest;
+import com.example.needcalculation.dto.HorizonNeedCalculationResponse;
+import com.example.needcalculation.dto.NeedCalculationRequest;
+import com.example.needcalculation.dto.NeedCalculationResponse;
+import com.example.needcalculation.exception.ShardUnavailableException;
+import com.example.needcalculation.model.Store;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Routes calculate requests across region shards.
+ *
+ * need.calculation.shards.routes maps regions to the base URL of the instance that owns them,
+ * e.g. {@code north=http://localhost:8082,south=http://localhost:8083}. A request is split
+ * by {@link Store#getRegion()}: stores of regions owned by this instance (see
+ * forecast.shard.regions) or without a route are calculated locally, the others are sent
+ * to their shard's /shard/calculate endpoint in parallel. The pieces are merged back in
+ * request order. Columnar, region, batch and horizon requests send one shard request per
+ * product and month. Forwarded stores carry the size resolved by this instance, so store
+ * configuration only has to be maintained on the routing instance.
+ *
+ * Every shard reports its own missing forecasts and failed stores. If a shard cannot be
+ * reached, times out or answers with an error while diagnostics are requested, only its
+ * stores fail: they get a need of zero and are listed as failed stores. Responses without
+ * diagnostics cannot report failed stores, so for them a failing shard fails the whole
+ * request with {@link ShardUnavailableException}.
+ *
+ * Shards publish forecast versions independently, so a merged response that includes
+ * remote shards is unversioned and is not cached.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ShardRouter {
+
+    static final String SHARD_CALCULATE_PATH = "/api/v1/need-calculation/shard/calculate";
+
+    private static final String LOCAL = "";
+
+    private final NeedCalculationService needCalculationService;
+    private final CsvDataLoaderService csvDataLoaderService;
+    private final StoreConfigurationService storeConfigurationService;
+    private final RestClient.Builder restClientBuilder;
+
+    // region=baseUrl pairs, empty to calculate everything locally
+    @Value("${need.calculation.shards.routes:}")
+    private List<String> shardRoutes = List.of();
+
+    // Connect and read timeout of a shard request
+    @Value("${need.calculation.shards.timeout-ms:2000}")
+    private long timeoutMs = 2000;
+
+    // Threads sending shard requests
+    @Value("${need.calculation.shards.fan-out-threads:16}")
+    private int fanOutThreads = 16;
+
+    // Region -> base URL of the owning shard, for regions not owned by this instance
+    private Map<String, String> routes = Map.of();
+
+    private RestClient restClient;
+
+    private ExecutorService fanOutExecutor;
+
+    @PostConstruct
+    public void initializeRoutes() {
+        Map<String, String> remoteRoutes = new HashMap<>();
+        for (String route : shardRoutes) {
+            int separator = route.indexOf('=');
+            if (separator <= 0 || separator == route.length() - 1) {
+                throw new IllegalArgumentException("Invalid shard route, expected region=url: " + route);
+            }
+            String region = route.substring(0, separator).trim();
+            String baseUrl = route.substring(separator + 1).trim();
+            if (!csvDataLoaderService.ownsRegion(region)) {
+                remoteRoutes.put(region, baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl);
+            }
+        }
+        routes = Collections.unmodifiableMap(remoteRoutes);
+        if (routes.isEmpty()) {
+            return;
+        }
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build());
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        restClient = restClientBuilder.requestFactory(requestFactory).build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        fanOutExecutor = Executors.newFixedThreadPool(fanOutThreads, runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Routing {} regions to {} shards", routes.size(), new TreeSet<>(routes.values()).size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether a request has stores in regions owned by other shards
+     *
+     * @param request NeedCalculationRequest containing product and stores
+     * @return true if at least one store is calculated remotely
+     */
+    public boolean isRemote(NeedCalculationRequest request) {
+        return isRemote(request.getStores());
+    }
+
+    private boolean isRemote(List<Store> stores) {
+        if (routes.isEmpty()) {
+            return false;
+        }
+        for (Store store : stores) {
+            if (routes.containsKey(store.getRegion())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calculate needs across the shards owning the stores' regions.
+     * With diagnostics, the stores of a failing shard get a need of zero and are listed
+     * as failed stores; without, there is nowhere to list them and the request fails.
+     *
+     * @param request NeedCalculationRequest containing product and stores
+     * @param includeDiagnostics Whether the merged response contains the diagnostics
+     * @return NeedCalculationResponse with one entry per store in request order
+     * @throws ShardUnavailableException if a shard cannot answer and diagnostics are not included
+     */
+    public NeedCalculationResponse calculateNeeds(NeedCalculationRequest request, boolean includeDiagnostics) {
+        if (!isRemote(request)) {
+            return needCalculationService.calculateNeeds(request, includeDiagnostics);
+        }
+
+        List<Store> stores = request.getStores();
+        Map<String, List<Integer>> positionsByShard = positionsByShard(stores);
+
+        Map<String, CompletableFuture<NeedCalculationResponse>> remoteResponses = new LinkedHashMap<>();
+        positionsByShard.forEach((shard, positions) -> {
+            if (!shard.equals(LOCAL)) {
+                NeedCalculationRequest piece = new NeedCalculationRequest(request.getProductName(),
+                        forwardedStores(request.getStores(), positions), request.getMonth());
+                remoteResponses.put(shard, CompletableFuture.supplyAsync(
+                        () -> calculateOnShard(shard, piece), fanOutExecutor));
+            }
+        });
+
+        List<Map<String, NeedCalculationResponse.SkuNeed>> needPerSKU = new ArrayList<>(stores.size());
+        for (int i = 0; i < stores.size(); i++) {
+            needPerSKU.add(null);
+        }
+        DiagnosticsMerger diagnostics = new DiagnosticsMerger(request);
+
+        List<Integer> localPositions = positionsByShard.get(LOCAL);
+        if (localPositions != null) {
+            NeedCalculationResponse local = needCalculationService.calculateNeeds(piece(request, localPositions), true);
+            merge(local, localPositions, needPerSKU, diagnostics);
+        }
+
+        remoteResponses.forEach((shard, future) -> {
+            List<Integer> positions = positionsByShard.get(shard);
+            NeedCalculationResponse response;
+            try {
+                response = join(shard, request.getProductName(), future, positions.size());
+            } catch (ShardUnavailableException e) {
+                if (!includeDiagnostics) {
+                    remoteResponses.values().forEach(pending -> pending.cancel(false));
+                    throw e;
+                }
+                log.error("{}, returning zero for its {} stores", e.getMessage(), positions.size());
+                failShard(request, positions, needPerSKU, diagnostics);
+                return;
+            }
+            merge(response, positions, needPerSKU, diagnostics);
+        });
+
+        return new NeedCalculationResponse(needPerSKU, ForecastSource.UNVERSIONED,
+                includeDiagnostics ? diagnostics.result() : null);
+    }
+
+    /**
+     * Calculate needs into the columnar response across the shards owning the stores' regions
+     *
+     * @param request NeedCalculationRequest containing product and stores
+     * @return ColumnarNeedCalculationResponse with one need per store in request order
+     * @throws ShardUnavailableException if a shard cannot answer
+     */
+    public ColumnarNeedCalculationResponse calculateColumnarNeeds(NeedCalculationRequest request) {
+        if (!isRemote(request)) {
+            return needCalculationService.calculateColumnarNeeds(request);
+        }
+        String productName = request.getProductName();
+        String month = NeedCalculationService.determineMonth(request.getMonth());
+        int[][] needs = routeNeeds(List.of(productName), List.of(month), request.getStores(),
+                local -> new int[][]{needCalculationService.calculateColumnarNeeds(
+                        new NeedCalculationRequest(productName, local, month)).getNeeds()});
+        return new ColumnarNeedCalculationResponse(productName, month, ForecastSource.UNVERSIONED,
+                storeNames(request.getStores()), needs[0]);
+    }
+
+    /**
+     * Calculate needs for all registered stores of a region, or of the whole chain,
+     * across the shards owning their regions
+     *
+     * @param productName Product name
+     * @param region Region of the registered stores, or null for all registered stores
+     * @param month Month to calculate, or null for the current month
+     * @return ColumnarNeedCalculationResponse with one need per registered store, ordered by store name
+     * @throws ShardUnavailableException if a shard cannot answer
+     */
+    public ColumnarNeedCalculationResponse calculateRegionNeeds(String productName, String region, String month) {
+        List<Store> stores = storeConfigurationService.getRegisteredStores(region);
+        return calculateColumnarNeeds(new NeedCalculationRequest(productName, stores, month));
+    }
+
+    /**
+     * Calculate batch needs across the shards owning the stores' regions
+     *
+     * @param request BatchNeedCalculationRequest containing products, stores and months
+     * @return BatchNeedCalculationResponse with one needs array per product and month
+     * @throws ShardUnavailableException if a shard cannot answer
+     */
+    public BatchNeedCalculationResponse calculateBatchNeeds(BatchNeedCalculationRequest request) {
+        if (!isRemote(request.getStores())) {
+            return needCalculationService.calculateBatchNeeds(request);
+        }
+        List<String> productNames = request.getProductNames();
+        List<String> months = NeedCalculationService.determineMonths(request.getMonths());
+        int[][] needs = routeNeeds(productNames, months, request.getStores(),
+                local -> needCalculationService.calculateBatchNeeds(
+                                new BatchNeedCalculationRequest(productNames, local, months))
+                        .getProductNeeds().stream()
+                        .map(BatchNeedCalculationResponse.ProductNeeds::getNeeds)
+                        .toArray(int[][]::new));
+
+        List<BatchNeedCalculationResponse.ProductNeeds> productNeeds = new ArrayList<>(needs.length);
+        int cell = 0;
+        for (String productName : productNames) {
+            for (String month : months) {
+                productNeeds.add(new BatchNeedCalculationResponse.ProductNeeds(productName, month, needs[cell++]));
+            }
+        }
+        return new BatchNeedCalculationResponse(storeNames(request.getStores()), ForecastSource.UNVERSIONED,
+                productNeeds);
+    }
+
+    /**
+     * Calculate horizon needs across the shards owning the stores' regions
+     *
+     * @param request HorizonNeedCalculationRequest containing product, stores and months
+     * @return HorizonNeedCalculationResponse with one needs vector per SKU
+     * @throws IllegalArgumentException if the month range is incomplete or names an unknown month
+     * @throws ShardUnavailableException if a shard cannot answer
+     */
+    public HorizonNeedCalculationResponse calculateHorizonNeeds(HorizonNeedCalculationRequest request) {
+        if (!isRemote(request.getStores())) {
+            return needCalculationService.calculateHorizonNeeds(request);
+        }
+        String productName = request.getProductName();
+        List<String> months = NeedCalculationService.determineHorizonMonths(request);
+        int[][] needs = routeNeeds(List.of(productName), months, request.getStores(), local -> {
+            HorizonNeedCalculationResponse response = needCalculationService.calculateHorizonNeeds(
+                    new HorizonNeedCalculationRequest(productName, local, months, null, null));
+            // One vector per store, turned into one array per month
+            int[][] localNeeds = new int[months.size()][local.size()];
+            for (int i = 0; i < local.size(); i++) {
+                int[] storeNeeds = response.getNeedPerSKU().get(i).values().iterator().next();
+                for (int m = 0; m < months.size(); m++) {
+                    localNeeds[m][i] = storeNeeds[m];
+                }
+            }
+            return localNeeds;
+        });
+
+        List<Store> stores = request.getStores();
+        List<Map<String, int[]>> needPerSKU = new ArrayList<>(stores.size());
+        for (int i = 0; i < stores.size(); i++) {
+            int[] storeNeeds = new int[months.size()];
+            for (int m = 0; m < months.size(); m++) {
+                storeNeeds[m] = needs[m][i];
+            }
+            needPerSKU.add(Map.of(productName + "@" + stores.get(i).getStoreName(), storeNeeds));
+        }
+        return new HorizonNeedCalculationResponse(productName, ForecastSource.UNVERSIONED, months, needPerSKU);
+    }
+
+    /**
+     * Calculate the needs of every product and month, sending the stores of other shards
+     * to their shard once per product and month
+     *
+     * @param local Calculates the local stores into the same layout
+     * @return Needs indexed by [product * months + month][store], stores in request order
+     */
+    private int[][] routeNeeds(List<String> productNames, List<String> months, List<Store> stores,
+                               Function<List<Store>, int[][]> local) {
+        Map<String, List<Integer>> positionsByShard = positionsByShard(stores);
+
+        Map<String, List<CompletableFuture<NeedCalculationResponse>>> remoteResponses = new LinkedHashMap<>();
+        positionsByShard.forEach((shard, positions) -> {
+            if (shard.equals(LOCAL)) {
+                return;
+            }
+            List<Store> shardStores = forwardedStores(stores, positions);
+            List<CompletableFuture<NeedCalculationResponse>> futures = new ArrayList<>();
+            for (String productName : productNames) {
+                for (String month : months) {
+                    NeedCalculationRequest piece = new NeedCalculationRequest(productName, shardStores, month);
+                    futures.add(CompletableFuture.supplyAsync(() -> calculateOnShard(shard, piece), fanOutExecutor));
+                }
+            }
+            remoteResponses.put(shard, futures);
+        });
+
+        try {
+            int[][] needs = new int[productNames.size() * months.size()][stores.size()];
+            List<Integer> localPositions = positionsByShard.get(LOCAL);
+            if (localPositions != null) {
+                int[][] localNeeds = local.apply(storesAt(stores, localPositions));
+                for (int cell = 0; cell < needs.length; cell++) {
+                    for (int i = 0; i < localPositions.size(); i++) {
+                        needs[cell][localPositions.get(i)] = localNeeds[cell][i];
+                    }
+                }
+            }
+
+            for (Map.Entry<String, List<CompletableFuture<NeedCalculationResponse>>> entry : remoteResponses.entrySet()) {
+                List<Integer> positions = positionsByShard.get(entry.getKey());
+                List<CompletableFuture<NeedCalculationResponse>> futures = entry.getValue();
+                for (int cell = 0; cell < futures.size(); cell++) {
+                    String productName = productNames.get(cell / months.size());
+                    NeedCalculationResponse response = join(entry.getKey(), productName, futures.get(cell), positions.size());
+                    for (int i = 0; i < positions.size(); i++) {
+                        Integer need = response.getNeedPerSKU().get(i).values().iterator().next().getNeed();
+                        needs[cell][positions.get(i)] = need != null ? need : 0;
+                    }
+                }
+            }
+            return needs;
+
+        } catch (RuntimeException e) {
+            // Requests still queued for other shards are not sent any more
+            remoteResponses.values().forEach(futures -> futures.forEach(future -> future.cancel(false)));
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for a shard's answer and check that it has one need per store
+     *
+     * @throws ShardUnavailableException if the shard failed or answered incompletely
+     */
+    private static NeedCalculationResponse join(String shard, String productName,
+                                                CompletableFuture<NeedCalculationResponse> future, int storeCount) {
+        try {
+            NeedCalculationResponse response = future.join();
+            int answered = response != null && response.getNeedPerSKU() != null
+                    ? response.getNeedPerSKU().size() : 0;
+            if (answered != storeCount) {
+                throw new IllegalStateException("answered " + answered + " needs for " + storeCount + " stores");
+            }
+            return response;
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new ShardUnavailableException(
+                    "Shard " + shard + " failed for product " + productName + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Split the stores by owning shard, remembering their position in the request
+     */
+    private Map<String, List<Integer>> positionsByShard(List<Store> stores) {
+        Map<String, List<Integer>> positionsByShard = new LinkedHashMap<>();
+        for (int i = 0; i < stores.size(); i++) {
+            String shard = routes.getOrDefault(stores.get(i).getRegion(), LOCAL);
+            positionsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(i);
+        }
+        return positionsByShard;
+    }
+
+    private static List<Store> storesAt(List<Store> stores, List<Integer> positions) {
+        List<Store> selected = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            selected.add(stores.get(position));
+        }
+        return selected;
+    }
+
+    /**
+     * Copy the stores with the size this instance resolves for them
+     */
+    private List<Store> forwardedStores(List<Store> stores, List<Integer> positions) {
+        List<Store> forwarded = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            Store store = stores.get(position);
+            String storeSize = null;
+            try {
+                storeSize = storeConfigurationService.getStoreSize(store.getStoreName()).getCode();
+            } catch (Exception e) {
+                // The shard resolves the size itself and reports the store if that fails too
+                log.debug("Error resolving store {} before forwarding: {}", store.getStoreName(), e.getMessage());
+            }
+            forwarded.add(new Store(store.getStoreName(), store.getRegion(), storeSize));
+        }
+        return forwarded;
+    }
+
+    private static List<String> storeNames(List<Store> stores) {
+        List<String> storeNames = new ArrayList<>(stores.size());
+        for (Store store : stores) {
+            storeNames.add(store.getStoreName());
+        }
+        return storeNames;
+    }
+
+    private NeedCalculationResponse calculateOnShard(String baseUrl, NeedCalculationRequest piece) {
+        return restClient.post()
+                .uri(baseUrl + SHARD_CALCULATE_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(piece)
+                .retrieve()
+                .body(NeedCalculationResponse.class);
+    }
+
+    private static NeedCalculationRequest piece(NeedCalculationRequest request, List<Integer> positions) {
+        return new NeedCalculationRequest(request.getProductName(), storesAt(request.getStores(), positions),
+                request.getMonth());
+    }
+
+    private static void merge(NeedCalculationResponse response, List<Integer> positions,
+                              List<Map<String, NeedCalculationResponse.SkuNeed>> needPerSKU,
+                              DiagnosticsMerger diagnostics) {
+        for (int i = 0; i < positions.size(); i++) {
+            needPerSKU.set(positions.get(i), response.getNeedPerSKU().get(i));
+        }
+        diagnostics.add(response.getDiagnostics());
+    }
+
+    private static void failShard(NeedCalculationRequest request, List<Integer> positions,
+                                  List<Map<String, NeedCalculationResponse.SkuNeed>> needPerSKU,
+                                  DiagnosticsMerger diagnostics) {
+        for (int position : positions) {
+            String storeName = request.getStores().get(position).getStoreName();
+            String sku = request.getProductName() + "@" + storeName;
+            Map<String, NeedCalculationResponse.SkuNeed> skuNeed = new HashMap<>();
+            skuNeed.put(sku, new NeedCalculationResponse.SkuNeed(0));
+            needPerSKU.set(position, skuNeed);
+            diagnostics.addFailedStore(storeName);
+        }
+    }
+
+    /**
+     * Combines the diagnostics of the pieces of one request
+     */
+    private static final class DiagnosticsMerger {
+
+        private final CalculationDiagnostics merged = new CalculationDiagnostics();
+        private final TreeSet<String> missingRegions = new TreeSet<>();
+        private final List<String> failedStores = new ArrayList<>();
+
+        DiagnosticsMerger(NeedCalculationRequest request) {
+            merged.setProductName(request.getProductName());
+            merged.setMonth(NeedCalculationService.determineMonth(request.getMonth()));
+        }
+
+        void add(CalculationDiagnostics piece) {
+            if (piece == null) {
+                return;
+            }
+            merged.setProductFound(merged.isProductFound() || piece.isProductFound());
+            merged.setMonthFound(merged.isMonthFound() || piece.isMonthFound());
+            merged.setMissingForecastStores(merged.getMissingForecastStores() + piece.getMissingForecastStores());
+            merged.setFailedStoreCount(merged.getFailedStoreCount() + piece.getFailedStoreCount());
+            if (piece.getMissingRegions() != null) {
+                missingRegions.addAll(piece.getMissingRegions());
+            }
+            if (piece.getFailedStores() != null) {
+                for (String storeName : piece.getFailedStores()) {
+                    addFailedStoreName(storeName);
+                }
+            }
+        }
+
+        void addFailedStore(String storeName) {
+            merged.setFailedStoreCount(merged.getFailedStoreCount() + 1);
+            addFailedStoreName(storeName);
+        }
+
+        private void addFailedStoreName(String storeName) {
+            if (failedStores.size() < CalculationDiagnostics.MAX_FAILED_STORES) {
+                failedStores.add(storeName);
+            }
+        }
+
+        CalculationDiagnostics result() {
+            merged.setMissingRegions(new ArrayList<>(missingRegions));
+            merged.setFailedStores(failedStores);
+            return merged;
+        }
+    }
+}
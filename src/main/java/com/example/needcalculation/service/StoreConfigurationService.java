@@ -1,25 +1,48 @@
 package com.example.needcalculation.service;
 
 import com.example.needcalculation.enums.StoreSize;
+import com.example.needcalculation.model.Store;
+import com.example.needcalculation.model.StoreMasterRecord;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service to manage store configurations.
  * In a real application, this would fetch store details from a database or another service.
  * For this demo, we'll simulate store sizes.
+ *
+ * Reads never lock or write: known stores are a ConcurrentHashMap lookup and unknown
+ * stores get a size derived from their name. Writers are serialized; a bulk replace
+ * builds a new map and publishes it with a single volatile write.
+ *
+ * The store master additionally keeps the region of registered stores, indexed by
+ * region, so whole regions can be calculated without the caller listing the stores.
+ * It is rebuilt on every change and published the same way.
  */
 @Service
 @Slf4j
 public class StoreConfigurationService {
 
-    // Simulated store configuration database
-    private Map<String, StoreSize> storeConfigurations = new HashMap<>();
+    private static final StoreSize[] SIZES = StoreSize.values();
+
+    // Simulated store configuration database, read concurrently by parallel calculations
+    private volatile Map<String, StoreSize> storeConfigurations = new ConcurrentHashMap<>();
+
+    // Registered stores: name -> region, and store names by region
+    private volatile StoreMaster storeMaster = StoreMaster.EMPTY;
+
+    // Incremented after every change of the configuration
+    private final AtomicLong version = new AtomicLong();
 
     /**
      * Initialize some sample store configurations
@@ -30,23 +53,40 @@ public class StoreConfigurationService {
         log.info("Initializing store configurations...");
 
         // Sample store configurations
-        storeConfigurations.put("str1", StoreSize.S);
-        storeConfigurations.put("str2", StoreSize.M);
-        storeConfigurations.put("str3", StoreSize.XS);
-        storeConfigurations.put("str4", StoreSize.L);
-        storeConfigurations.put("str5", StoreSize.XL);
-        storeConfigurations.put("str6", StoreSize.M);
-        storeConfigurations.put("str7", StoreSize.S);
-        storeConfigurations.put("str8", StoreSize.L);
-        storeConfigurations.put("str9", StoreSize.XS);
-        storeConfigurations.put("str10", StoreSize.XL);
+        Map<String, StoreSize> sampleConfigurations = new HashMap<>();
+        sampleConfigurations.put("str1", StoreSize.S);
+        sampleConfigurations.put("str2", StoreSize.M);
+        sampleConfigurations.put("str3", StoreSize.XS);
+        sampleConfigurations.put("str4", StoreSize.L);
+        sampleConfigurations.put("str5", StoreSize.XL);
+        sampleConfigurations.put("str6", StoreSize.M);
+        sampleConfigurations.put("str7", StoreSize.S);
+        sampleConfigurations.put("str8", StoreSize.L);
+        sampleConfigurations.put("str9", StoreSize.XS);
+        sampleConfigurations.put("str10", StoreSize.XL);
+        replaceStoreConfigurations(sampleConfigurations);
+
+        // Sample store regions
+        Map<String, String> sampleRegions = new HashMap<>();
+        sampleRegions.put("str1", "extreme_north");
+        sampleRegions.put("str2", "rajasthan");
+        sampleRegions.put("str3", "extreme_north");
+        sampleRegions.put("str4", "north_central");
+        sampleRegions.put("str5", "rajasthan");
+        sampleRegions.put("str6", "northeast");
+        sampleRegions.put("str7", "west");
+        sampleRegions.put("str8", "south");
+        sampleRegions.put("str9", "central");
+        sampleRegions.put("str10", "southeast_coastal");
+        storeMaster = StoreMaster.of(sampleRegions);
 
         log.info("Initialized {} store configurations", storeConfigurations.size());
     }
 
     /**
      * Get store size for a given store name
-     * If store is not found, randomly assign a size (for demo purposes)
+     * If store is not found, a size is derived from the store name (for demo purposes),
+     * so the same unknown store always gets the same size without being stored
      *
      * @param storeName Name of the store
      * @return StoreSize enum
@@ -55,15 +95,9 @@ public class StoreConfigurationService {
         StoreSize size = storeConfigurations.get(storeName);
 
         if (size == null) {
-            // For demo: randomly assign a size if store not found
-            StoreSize[] sizes = StoreSize.values();
-            size = sizes[new Random().nextInt(sizes.length)];
-
-            log.warn("Store '{}' not found in configuration. Assigned random size: {}",
+            size = defaultStoreSize(storeName);
+            log.debug("Store '{}' not found in configuration. Using derived size: {}",
                     storeName, size);
-
-            // Cache it for consistency
-            storeConfigurations.put(storeName, size);
         }
 
         return size;
@@ -75,11 +109,106 @@ public class StoreConfigurationService {
      * @param storeName Name of the store
      * @param size Size of the store
      */
-    public void updateStoreConfiguration(String storeName, StoreSize size) {
+    public synchronized void updateStoreConfiguration(String storeName, StoreSize size) {
         storeConfigurations.put(storeName, size);
+        version.incrementAndGet();
         log.info("Updated store configuration: {} -> {}", storeName, size);
     }
 
+    /**
+     * Add or update many store configurations at once.
+     * Existing stores not contained in the map are kept.
+     *
+     * @param configurations Map of store name to store size
+     */
+    public synchronized void loadStoreConfigurations(Map<String, StoreSize> configurations) {
+        storeConfigurations.putAll(configurations);
+        version.incrementAndGet();
+        log.info("Loaded {} store configurations ({} total)",
+                configurations.size(), storeConfigurations.size());
+    }
+
+    /**
+     * Replace all store configurations.
+     * Readers see either the complete old or the complete new configuration.
+     *
+     * @param configurations Map of store name to store size
+     */
+    public synchronized void replaceStoreConfigurations(Map<String, StoreSize> configurations) {
+        storeConfigurations = new ConcurrentHashMap<>(configurations);
+        version.incrementAndGet();
+        log.info("Replaced store configurations with {} stores", configurations.size());
+    }
+
+    /**
+     * Register stores with their region and size, keeping all other registered stores
+     *
+     * @param stores Store master records
+     */
+    public synchronized void registerStores(Collection<StoreMasterRecord> stores) {
+        Map<String, String> regions = new HashMap<>(storeMaster.regions());
+        applyStoreMaster(stores, regions);
+        log.info("Registered {} stores ({} total)", stores.size(), regions.size());
+    }
+
+    /**
+     * Replace all registered stores. Sizes of stores that are not part of the new
+     * master stay configured, but those stores no longer belong to a region.
+     *
+     * @param stores Store master records
+     */
+    public synchronized void replaceStores(Collection<StoreMasterRecord> stores) {
+        Map<String, String> regions = new HashMap<>();
+        applyStoreMaster(stores, regions);
+        log.info("Replaced store master with {} stores", regions.size());
+    }
+
+    private void applyStoreMaster(Collection<StoreMasterRecord> stores, Map<String, String> regions) {
+        // Validate all codes before changing anything
+        Map<String, StoreSize> sizes = new HashMap<>(stores.size() * 2);
+        for (StoreMasterRecord store : stores) {
+            sizes.put(store.getStoreName(), StoreSize.fromCode(store.getStoreSize()));
+            regions.put(store.getStoreName(), store.getRegion());
+        }
+        storeConfigurations.putAll(sizes);
+        storeMaster = StoreMaster.of(regions);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Get the registered stores of a region, ordered by name
+     *
+     * @param region Region name, or null for all registered stores
+     * @return New Store instances with name and region, safe to modify
+     */
+    public List<Store> getRegisteredStores(String region) {
+        StoreMaster master = storeMaster;
+        List<String> storeNames = region == null
+                ? master.storeNames()
+                : master.storesByRegion().getOrDefault(region, List.of());
+
+        List<Store> stores = new ArrayList<>(storeNames.size());
+        for (String storeName : storeNames) {
+            stores.add(new Store(storeName, master.regions().get(storeName), null));
+        }
+        return stores;
+    }
+
+    /**
+     * Get all registered stores with their region and current size, ordered by name
+     *
+     * @return Store master records
+     */
+    public List<StoreMasterRecord> getStoreMaster() {
+        StoreMaster master = storeMaster;
+        List<StoreMasterRecord> records = new ArrayList<>(master.storeNames().size());
+        for (String storeName : master.storeNames()) {
+            records.add(new StoreMasterRecord(storeName, master.regions().get(storeName),
+                    getStoreSize(storeName).getCode()));
+        }
+        return records;
+    }
+
     /**
      * Get all store configurations
      *
@@ -88,4 +217,45 @@ public class StoreConfigurationService {
     public Map<String, StoreSize> getAllStoreConfigurations() {
         return new HashMap<>(storeConfigurations);
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the version of the store configuration, which changes with every update
+     *
+     * @return Current version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Deterministic size for stores without configuration, spread evenly over all sizes
+     */
+    private static StoreSize defaultStoreSize(String storeName) {
+        int hash = storeName.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return SIZES[Math.floorMod(hash, SIZES.length)];
+    }
+
+    /**
+     * Immutable store master snapshot: region per store, plus store names per region
+     * and overall, each ordered by name
+     */
+    private record StoreMaster(Map<String, String> regions, Map<String, List<String>> storesByRegion,
+                               List<String> storeNames) {
+
+        static final StoreMaster EMPTY = new StoreMaster(Map.of(), Map.of(), List.of());
+
+        static StoreMaster of(Map<String, String> regions) {
+            Map<String, String> sortedRegions = new TreeMap<>(regions);
+            Map<String, List<String>> storesByRegion = new HashMap<>();
+            sortedRegions.forEach((storeName, region) ->
+                    storesByRegion.computeIfAbsent(region, key -> new ArrayList<>()).add(storeName));
+            storesByRegion.replaceAll((region, storeNames) -> List.copyOf(storeNames));
+
+            return new StoreMaster(Map.copyOf(regions), Map.copyOf(storesByRegion),
+                    List.copyOf(sortedRegions.keySet()));
+        }
+    }
+}
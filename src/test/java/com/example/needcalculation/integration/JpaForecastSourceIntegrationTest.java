@@ -0,0 +1,121 @@
+package com.example.needcalculation.integration;
+
+import com.example.needcalculation.controller.ForecastAdminController;
+import com.example.needcalculation.dto.ForecastDeltaRequest;
+import com.example.needcalculation.dto.NeedCalculationRequest;
+import com.example.needcalculation.dto.NeedCalculationResponse;
+import com.example.needcalculation.model.Store;
+import com.example.needcalculation.repository.ForecastRepository;
+import com.example.needcalculation.service.CsvDataLoaderService;
+import com.example.needcalculation.service.ForecastSource;
+import com.example.needcalculation.service.JpaForecastSource;
+import com.example.needcalculation.service.NeedCalculationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the database-backed forecast source against H2.
+ * Doubles as a small benchmark: the number of SQL statements per request
+ * must stay constant while the number of stores grows.
+ */
+@SpringBootTest(properties = {
+        "forecast.source=jpa",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+public class JpaForecastSourceIntegrationTest {
+
+    private static final String[] REGIONS = {
+            "extreme_north", "rajasthan", "north_central", "northeast",
+            "west", "south", "central", "southeast_coastal"
+    };
+
+    @Autowired
+    private NeedCalculationService needCalculationService;
+
+    @Autowired
+    private ForecastSource forecastSource;
+
+    @Autowired
+    private ForecastRepository forecastRepository;
+
+    @Autowired
+    private CsvDataLoaderService csvDataLoaderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ForecastAdminController forecastAdminController;
+
+    @BeforeEach
+    void seedDatabase() {
+        // Same rows as the CSV, so both sources must give the same needs
+        if (forecastRepository.count() == 0) {
+            forecastRepository.saveAll(csvDataLoaderService.findAll());
+        }
+    }
+
+    @Test
+    void testJpaSourceIsSelected() {
+        assertInstanceOf(JpaForecastSource.class, forecastSource);
+    }
+
+    @Test
+    void testNeedsMatchCsvSource() {
+        // str3 is XS and str5 is XL in the sample configuration
+        NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L", List.of(
+                new Store("str3", "extreme_north", null),
+                new Store("str5", "rajasthan", null),
+                new Store("str3", "unknown_region", null)), "December");
+
+        NeedCalculationResponse response = needCalculationService.calculateNeeds(request);
+
+        assertEquals(55, response.getNeedPerSKU().get(0).get("Bisleri-1L@str3").getNeed());
+        assertEquals(650, response.getNeedPerSKU().get(1).get("Bisleri-1L@str5").getNeed());
+        assertEquals(0, response.getNeedPerSKU().get(2).get("Bisleri-1L@str3").getNeed());
+    }
+
+    @Test
+    void testForecastDeltaIsRejected() {
+        // Calculations read the database, a delta on the CSV index would change nothing
+        long version = csvDataLoaderService.getForecastVersion();
+        ForecastDeltaRequest delta = new ForecastDeltaRequest(List.of(
+                new ForecastDeltaRequest.Row("December", "extreme_north", "Bisleri-1L", 40)));
+
+        assertEquals(HttpStatus.CONFLICT, forecastAdminController.applyForecastDelta(delta).getStatusCode());
+        assertEquals(version, csvDataLoaderService.getForecastVersion());
+    }
+
+    @Test
+    void testQueryCountIsConstantAsStoreCountGrows() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int storeCount : new int[]{1, 10, 100, 1_000, 10_000}) {
+            List<Store> stores = new ArrayList<>(storeCount);
+            for (int i = 0; i < storeCount; i++) {
+                stores.add(new Store("bench_store_" + i, REGIONS[i % REGIONS.length], null));
+            }
+            NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L", stores, "June");
+
+            statistics.clear();
+            NeedCalculationResponse response = needCalculationService.calculateNeeds(request);
+
+            assertEquals(storeCount, response.getNeedPerSKU().size());
+            assertEquals(1, statistics.getPrepareStatementCount(),
+                    "Expected one query for " + storeCount + " stores");
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.needcalculation.integration;
 
+import com.example.needcalculation.dto.ForecastReloadResult;
 import com.example.needcalculation.dto.NeedCalculationRequest;
 import com.example.needcalculation.dto.NeedCalculationResponse;
 import com.example.needcalculation.enums.StoreSize;
+import com.example.needcalculation.model.ForecastIndex;
 import com.example.needcalculation.model.Store;
 import com.example.needcalculation.service.CsvDataLoaderService;
 import com.example.needcalculation.service.NeedCalculationService;
@@ -299,4 +301,17 @@ public class NeedCalculationServiceIntegrationTest extends BaseIntegrationTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReloadPublishesEquivalentSnapshot() {
+        ForecastIndex before = csvDataLoaderService.getForecastIndex();
+
+        ForecastReloadResult result = csvDataLoaderService.reloadCsvData();
+
+        // A new snapshot is published, but the unchanged file yields no changed records
+        assertNotSame(before, csvDataLoaderService.getForecastIndex());
+        assertEquals(before.size(), result.getRecords());
+        assertEquals(0, result.getChangedRecords());
+        assertTrue(result.getDurationMs() >= 0);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.needcalculation.model;
+
+import com.example.needcalculation.enums.StoreSize;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the dictionary-encoded ForecastIndex
+ */
+class ForecastIndexTest {
+
+    @Test
+    void testLookupByNameAndId() {
+        ForecastIndex index = ForecastIndex.builder()
+                .add("January", "west", "Bisleri-1L", 50)
+                .add("January", "south", "Bisleri-1L", 70)
+                .add("February", "west", "Bisleri-10L", 20)
+                .build();
+
+        assertEquals(3, index.size());
+        assertEquals(2, index.productCount());
+        assertEquals(2, index.monthCount());
+        assertEquals(2, index.regionCount());
+
+        assertEquals(50, index.baseNeed("Bisleri-1L", "January", "west"));
+        assertEquals(70, index.baseNeed(
+                index.productId("Bisleri-1L"), index.monthId("January"), index.regionId("south")));
+        assertEquals(20, index.baseNeed("Bisleri-10L", "February", "west"));
+    }
+
+    @Test
+    void testMissingCellsReturnSentinel() {
+        ForecastIndex index = ForecastIndex.builder()
+                .add("January", "west", "Bisleri-1L", 50)
+                .add("February", "south", "Bisleri-10L", 20)
+                .build();
+
+        // Known dimensions, but no row for this combination
+        assertEquals(ForecastIndex.NO_FORECAST, index.baseNeed("Bisleri-1L", "February", "south"));
+
+        // Unknown dimensions
+        assertEquals(ForecastIndex.UNKNOWN_ID, index.regionId("unknown_region"));
+        assertEquals(ForecastIndex.NO_FORECAST, index.baseNeed("Bisleri-1L", "January", "unknown_region"));
+        assertEquals(ForecastIndex.NO_FORECAST, index.baseNeed(null, "January", "west"));
+    }
+
+    @Test
+    void testDuplicateRowsLastValueWins() {
+        ForecastIndex index = ForecastIndex.builder()
+                .add("January", "west", "Bisleri-1L", 50)
+                .add("January", "west", "Bisleri-1L", 65)
+                .build();
+
+        assertEquals(1, index.size());
+        assertEquals(65, index.baseNeed("Bisleri-1L", "January", "west"));
+    }
+
+    @Test
+    void testForEachVisitsPopulatedCells() {
+        ForecastIndex index = ForecastIndex.builder()
+                .add("January", "west", "Bisleri-1L", 50)
+                .add("February", "south", "Bisleri-10L", 0)
+                .build();
+
+        List<String> visited = new ArrayList<>();
+        index.forEach((product, month, region, baseNeed) ->
+                visited.add(product + "#" + month + "#" + region + "=" + baseNeed));
+
+        assertEquals(List.of("Bisleri-1L#January#west=50", "Bisleri-10L#February#south=0"), visited);
+    }
+
+    @Test
+    void testCountChangedCells() {
+        ForecastIndex previous = ForecastIndex.builder()
+                .add("January", "west", "Bisleri-1L", 50)
+                .add("January", "south", "Bisleri-1L", 70)
+                .add("February", "west", "Bisleri-10L", 20)
+                .build();
+        ForecastIndex current = ForecastIndex.builder()
+                .add("January", "west", "Bisleri-1L", 50)      // unchanged
+                .add("January", "south", "Bisleri-1L", 75)     // changed
+                .add("March", "west", "Bisleri-0.5L", 10)      // added
+                .build();                                      // February row removed
+
+        assertEquals(3, current.countChangedCells(previous));
+        assertEquals(0, current.countChangedCells(current));
+    }
+
+    @Test
+    void testPrecomputedNeedsMatchBoxedRounding() {
+        ForecastIndex.Builder builder = ForecastIndex.builder();
+        for (int baseNeed = -1000; baseNeed <= 1000; baseNeed++) {
+            builder.add("January", "region_" + baseNeed, "Bisleri-1L", baseNeed);
+        }
+        builder.add("January", "huge", "Bisleri-1L", Integer.MAX_VALUE);
+        builder.add("January", "odd", "Bisleri-1L", 16_777_217);
+        ForecastIndex index = builder.build();
+
+        int productId = index.productId("Bisleri-1L");
+        int monthId = index.monthId("January");
+        for (int regionId = 0; regionId < index.regionCount(); regionId++) {
+            int baseNeed = index.baseNeed(productId, monthId, regionId);
+            for (StoreSize storeSize : StoreSize.values()) {
+                // Rounding the calculation has always used
+                Double multipliedNeed = baseNeed * storeSize.getMultiplicationFactor();
+                assertEquals(Math.round(multipliedNeed.floatValue()),
+                        index.need(productId, monthId, regionId, storeSize),
+                        "base need " + baseNeed + ", size " + storeSize);
+            }
+        }
+
+        assertEquals(ForecastIndex.NO_FORECAST, index.need(productId, index.monthId("May"), 0, StoreSize.XL));
+        assertEquals(ForecastIndex.NO_FORECAST, index.need(ForecastIndex.UNKNOWN_ID, monthId, 0, StoreSize.S));
+    }
+
+    @Test
+    void testWithChangesCopiesOnlyChangedPartitions() {
+        ForecastIndex index = ForecastIndex.builder()
+                .add("January", "west", "Bisleri-1L", 50)
+                .add("January", "south", "Bisleri-1L", 70)
+                .add("January", "west", "Bisleri-10L", 20)
+                .build()
+                .withVersion(4);
+
+        ForecastIndex changed = index.withChanges(List.of(
+                new ForecastIndex.CellChange("Bisleri-1L", "January", "west", 55),
+                new ForecastIndex.CellChange("Bisleri-1L", "January", "south", ForecastIndex.NO_FORECAST),
+                new ForecastIndex.CellChange("Bisleri-10L", "May", "west", ForecastIndex.NO_FORECAST)));
+
+        // Source snapshot is untouched; removal of an unknown month is a no-op
+        assertEquals(50, index.baseNeed("Bisleri-1L", "January", "west"));
+        assertEquals(4, index.getVersion());
+        assertEquals(55, changed.baseNeed("Bisleri-1L", "January", "west"));
+        assertEquals(110, changed.need(changed.productId("Bisleri-1L"), changed.monthId("January"),
+                changed.regionId("west"), StoreSize.M));
+        assertEquals(ForecastIndex.NO_FORECAST, changed.baseNeed("Bisleri-1L", "January", "south"));
+        assertEquals(2, changed.size());
+        assertEquals(1, changed.monthCount());
+        assertEquals(1, changed.countSharedPartitions(index));
+        assertEquals(ForecastIndex.UNVERSIONED, changed.getVersion());
+    }
+
+    @Test
+    void testWithChangesAddsDimensions() {
+        ForecastIndex index = ForecastIndex.builder()
+                .add("January", "west", "Bisleri-1L", 50)
+                .add("February", "west", "Bisleri-1L", 60)
+                .build();
+
+        ForecastIndex changed = index.withChanges(List.of(
+                new ForecastIndex.CellChange("Bisleri-5L", "January", "west", 10),
+                new ForecastIndex.CellChange("Bisleri-1L", "February", "north", 30)));
+
+        // A new region reshapes every partition, existing cells keep their values
+        assertEquals(0, changed.countSharedPartitions(index));
+        assertEquals(4, changed.size());
+        assertEquals(50, changed.baseNeed("Bisleri-1L", "January", "west"));
+        assertEquals(60, changed.baseNeed("Bisleri-1L", "February", "west"));
+        assertEquals(30, changed.baseNeed("Bisleri-1L", "February", "north"));
+        assertEquals(10, changed.baseNeed("Bisleri-5L", "January", "west"));
+        assertEquals(ForecastIndex.NO_FORECAST, changed.baseNeed("Bisleri-5L", "February", "north"));
+        assertEquals(List.of("Bisleri-1L", "Bisleri-5L"), changed.getProducts());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.dto.BatchNeedCalculationRequest;
+import com.example.needcalculation.dto.BatchNeedCalculationResponse;
+import com.example.needcalculation.dto.BulkCalculationJobRequest;
+import com.example.needcalculation.dto.BulkCalculationJobStatus;
+import com.example.needcalculation.enums.BulkJobFormat;
+import com.example.needcalculation.enums.BulkJobState;
+import com.example.needcalculation.model.Store;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BulkCalculationJobService
+ */
+class BulkCalculationJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void testInterruptedJobResumesFromLastCheckpoint() throws Exception {
+        // First run: the worker is interrupted while writing the second of three chunks
+        NeedCalculationService interrupted = mock(NeedCalculationService.class);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch secondChunk = new CountDownLatch(1);
+        when(interrupted.calculateBatchNeeds(any())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 2) {
+                Thread.currentThread().interrupt();
+                secondChunk.countDown();
+            }
+            return needs(invocation.getArgument(0));
+        });
+
+        BulkCalculationJobService firstRun = createService(interrupted);
+        List<Store> stores = IntStream.range(0, 5)
+                .mapToObj(i -> new Store("s" + i, "north", null))
+                .toList();
+        BulkCalculationJobStatus submitted = firstRun.submit(new BulkCalculationJobRequest(
+                List.of("Bisleri-1L"), stores, List.of("may"), BulkJobFormat.NDJSON));
+        assertEquals(3, submitted.getTotalChunks());
+
+        assertTrue(secondChunk.await(10, TimeUnit.SECONDS));
+        firstRun.shutdown();
+
+        BulkCalculationJobStatus checkpoint = firstRun.getStatus(submitted.getJobId()).orElseThrow();
+        assertEquals(BulkJobState.RUNNING, checkpoint.getState());
+        assertEquals(1, checkpoint.getCompletedChunks());
+        assertTrue(firstRun.getResultFile(submitted.getJobId()).isEmpty());
+
+        // Simulate a torn write after the checkpoint
+        Path resultFile = directory.resolve(submitted.getJobId()).resolve("result.ndjson.gz");
+        Files.write(resultFile, new byte[]{0x1f, (byte) 0x8b, 8, 0}, StandardOpenOption.APPEND);
+
+        // Second run: the job is picked up from its directory and finished
+        NeedCalculationService healthy = mock(NeedCalculationService.class);
+        when(healthy.calculateBatchNeeds(any())).thenAnswer(invocation -> needs(invocation.getArgument(0)));
+        BulkCalculationJobService secondRun = createService(healthy);
+
+        BulkCalculationJobStatus completed = awaitCompletion(secondRun, submitted.getJobId());
+        assertEquals(3, completed.getCompletedChunks());
+        assertEquals(5, completed.getRowsWritten());
+        assertEquals(Files.size(resultFile), completed.getBytesWritten());
+        assertEquals(resultFile, secondRun.getResultFile(submitted.getJobId()).orElseThrow());
+
+        // Every store exactly once, in order
+        List<String> lines = readLines(resultFile);
+        assertEquals(5, lines.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("{\"productName\":\"Bisleri-1L\",\"month\":\"May\",\"storeName\":\"s" + i
+                    + "\",\"need\":" + i * 10 + "}", lines.get(i));
+        }
+        secondRun.shutdown();
+    }
+
+    @Test
+    void testSubmitWithoutStoresIsRejected() throws Exception {
+        NeedCalculationService needCalculationService = mock(NeedCalculationService.class);
+        BulkCalculationJobService service = createService(needCalculationService);
+
+        assertThrows(IllegalArgumentException.class, () -> service.submit(
+                new BulkCalculationJobRequest(List.of("Bisleri-1L"), null, null, null)));
+        service.shutdown();
+    }
+
+    private BulkCalculationJobService createService(NeedCalculationService needCalculationService)
+            throws IOException {
+        // Without routes every chunk is calculated locally
+        ShardRouter shardRouter = new ShardRouter(needCalculationService, mock(CsvDataLoaderService.class),
+                new StoreConfigurationService(), RestClient.builder());
+        shardRouter.initializeRoutes();
+        BulkCalculationJobService service = new BulkCalculationJobService(
+                needCalculationService, shardRouter, new StoreConfigurationService(), objectMapper);
+        ReflectionTestUtils.setField(service, "directory", directory);
+        ReflectionTestUtils.setField(service, "chunkStores", 2);
+        service.initialize();
+        return service;
+    }
+
+    private static BulkCalculationJobStatus awaitCompletion(BulkCalculationJobService service, String jobId)
+            throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            BulkCalculationJobStatus status = service.getStatus(jobId).orElseThrow();
+            if (status.getState() == BulkJobState.COMPLETED || status.getState() == BulkJobState.FAILED) {
+                return status;
+            }
+            Thread.sleep(25);
+        }
+        fail("Job did not complete: " + jobId);
+        return null;
+    }
+
+    /**
+     * Need of store sN is N * 10
+     */
+    private static BatchNeedCalculationResponse needs(BatchNeedCalculationRequest request) {
+        List<String> storeNames = request.getStores().stream().map(Store::getStoreName).toList();
+        int[] needs = storeNames.stream().mapToInt(name -> Integer.parseInt(name.substring(1)) * 10).toArray();
+        return new BatchNeedCalculationResponse(storeNames, 1L, List.of(
+                new BatchNeedCalculationResponse.ProductNeeds(request.getProductNames().get(0),
+                        request.getMonths().get(0), needs)));
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
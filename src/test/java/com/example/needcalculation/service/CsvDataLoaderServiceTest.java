@@ -0,0 +1,131 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.dto.ForecastDeltaRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CsvDataLoaderService
+ */
+class CsvDataLoaderServiceTest {
+
+    private static final String HEADER = "month,region,product_name,base_need_xs\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path csv;
+
+    private CsvDataLoaderService csvDataLoaderService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        csv = tempDir.resolve("forecast.csv");
+        write(HEADER + "December,south,Bisleri-1L,100\n", 1_000);
+
+        csvDataLoaderService = new CsvDataLoaderService();
+        ReflectionTestUtils.setField(csvDataLoaderService, "csvFilePath", csv.toString());
+        ReflectionTestUtils.setField(csvDataLoaderService, "watchEnabled", true);
+        csvDataLoaderService.loadCsvData();
+    }
+
+    @Test
+    void testReloadWaitsUntilFileIsUnchangedForOnePoll() throws IOException {
+        long version = csvDataLoaderService.getForecastVersion();
+
+        // A copy in progress: the first poll sees a partial file, the second a longer one
+        write(HEADER + "December,south,Bisleri-1L,1", 2_000);
+        csvDataLoaderService.reloadIfChanged();
+        write(HEADER + "December,south,Bisleri-1L,150\n", 3_000);
+        csvDataLoaderService.reloadIfChanged();
+        assertEquals(version, csvDataLoaderService.getForecastVersion());
+        assertEquals(100, csvDataLoaderService.getForecastIndex().baseNeed("Bisleri-1L", "December", "south"));
+
+        // Unchanged since the previous poll
+        csvDataLoaderService.reloadIfChanged();
+        assertEquals(version + 1, csvDataLoaderService.getForecastVersion());
+        assertEquals(150, csvDataLoaderService.getForecastIndex().baseNeed("Bisleri-1L", "December", "south"));
+
+        csvDataLoaderService.reloadIfChanged();
+        assertEquals(version + 1, csvDataLoaderService.getForecastVersion());
+    }
+
+    @Test
+    void testDeltaRejectsInvalidMonth() {
+        long version = csvDataLoaderService.getForecastVersion();
+        ForecastDeltaRequest delta = new ForecastDeltaRequest(List.of(
+                new ForecastDeltaRequest.Row("Dec", "south", "Bisleri-1L", 40)));
+
+        assertThrows(IllegalArgumentException.class, () -> csvDataLoaderService.applyDelta(delta));
+        assertEquals(version, csvDataLoaderService.getForecastVersion());
+        assertEquals(List.of("December"), csvDataLoaderService.getForecastIndex().getMonths());
+    }
+
+    @Test
+    void testDeltaAddsUnknownRegionOnlyWhenAllowed() {
+        ForecastDeltaRequest delta = new ForecastDeltaRequest(List.of(
+                new ForecastDeltaRequest.Row("december", "sout", "Bisleri-1L", 40)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> csvDataLoaderService.applyDelta(delta));
+        assertTrue(exception.getMessage().contains("sout"));
+        assertEquals(List.of("south"), csvDataLoaderService.getForecastIndex().getRegions());
+
+        delta.setAllowNewRegions(true);
+        csvDataLoaderService.applyDelta(delta);
+        assertEquals(40, csvDataLoaderService.getForecastIndex().baseNeed("Bisleri-1L", "December", "sout"));
+    }
+
+    @Test
+    void testDeltaRejectsRowsOfOtherShards() {
+        ReflectionTestUtils.setField(csvDataLoaderService, "shardRegions", Set.of("south"));
+        long version = csvDataLoaderService.getForecastVersion();
+        ForecastDeltaRequest delta = new ForecastDeltaRequest(List.of(
+                new ForecastDeltaRequest.Row("December", "south", "Bisleri-1L", 40),
+                new ForecastDeltaRequest.Row("December", "north", "Bisleri-1L", 50)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> csvDataLoaderService.applyDelta(delta));
+        assertTrue(exception.getMessage().contains("1 (Bisleri-1L, December, north)"));
+        assertEquals(version, csvDataLoaderService.getForecastVersion());
+        assertEquals(100, csvDataLoaderService.getForecastIndex().baseNeed("Bisleri-1L", "December", "south"));
+    }
+
+    @Test
+    void testVersionsAreNotReusedAfterRestart() throws IOException, InterruptedException {
+        long version = csvDataLoaderService.getForecastVersion();
+        // A restart takes at least a few milliseconds
+        Thread.sleep(5);
+
+        CsvDataLoaderService restarted = new CsvDataLoaderService();
+        ReflectionTestUtils.setField(restarted, "csvFilePath", csv.toString());
+        restarted.loadCsvData();
+
+        assertTrue(restarted.getForecastVersion() > version);
+    }
+
+    @Test
+    void testEmptyChangesDoNotPublishVersion() {
+        long version = csvDataLoaderService.getForecastVersion();
+
+        assertEquals(version, csvDataLoaderService.applyChanges(List.of()).getForecastVersion());
+        assertEquals(version, csvDataLoaderService.getForecastVersion());
+    }
+
+    private void write(String content, long modifiedMillis) throws IOException {
+        Files.writeString(csv, content, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(modifiedMillis));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.model.ForecastIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming forecast CSV parser
+ */
+class ForecastCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParsesRowsAndSkipsHeader() throws IOException {
+        Path csv = write("month,region,product_name,base_need_xs\n"
+                + "January,extreme_north,Bisleri-1L,50\n"
+                + "January,rajasthan,Bisleri-1L,120\n"
+                + "February,rajasthan,Bisleri-10L,30");
+
+        ForecastIndex index = new ForecastCsvReader().read(csv);
+
+        assertEquals(3, index.size());
+        assertEquals(50, index.baseNeed("Bisleri-1L", "January", "extreme_north"));
+        assertEquals(120, index.baseNeed("Bisleri-1L", "January", "rajasthan"));
+        assertEquals(30, index.baseNeed("Bisleri-10L", "February", "rajasthan"));
+    }
+
+    @Test
+    void testKeepsOnlyShardRegions() throws IOException {
+        Path csv = write("month,region,product_name,base_need_xs\n"
+                + "January,extreme_north,Bisleri-1L,50\n"
+                + "January,rajasthan,Bisleri-1L,120\n"
+                + "February,rajasthan,Bisleri-10L,30");
+
+        ForecastIndex index = new ForecastCsvReader(Set.of("rajasthan")).read(csv);
+
+        assertEquals(2, index.size());
+        assertEquals(List.of("rajasthan"), index.getRegions());
+        assertEquals(ForecastIndex.NO_FORECAST, index.baseNeed("Bisleri-1L", "January", "extreme_north"));
+    }
+
+    @Test
+    void testHandlesBomCrlfQuotesWhitespaceAndShortRows() throws IOException {
+        Path csv = write("\uFEFFmonth,region,product_name,base_need_xs\r\n"
+                + " March , west ,\"Bisleri, 1L\", 42 \r\n"
+                + "\r\n"
+                + "March,west\r\n"
+                + "\"March\",\"south\",\"Say \"\"Hi\"\"\",7\r\n");
+
+        ForecastIndex index = new ForecastCsvReader().read(csv);
+
+        assertEquals(2, index.size());
+        assertEquals(42, index.baseNeed("Bisleri, 1L", "March", "west"));
+        assertEquals(7, index.baseNeed("Say \"Hi\"", "March", "south"));
+    }
+
+    @Test
+    void testLinesSpanningWindowsAreParsedOnce() throws IOException {
+        StringBuilder content = new StringBuilder("month,region,product_name,base_need_xs\n");
+        for (int i = 0; i < 500; i++) {
+            content.append("April,region").append(i % 7).append(",product").append(i).append(',').append(i).append('\n');
+        }
+        Path csv = write(content.toString());
+
+        // A tiny window forces many records to straddle window boundaries
+        ForecastIndex index = new ForecastCsvReader(64).read(csv);
+
+        assertEquals(500, index.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, index.baseNeed("product" + i, "April", "region" + (i % 7)));
+        }
+    }
+
+    @Test
+    void testInvalidNumberReportsLine() throws IOException {
+        Path csv = write("month,region,product_name,base_need_xs\n"
+                + "May,west,Bisleri-1L,12\n"
+                + "May,south,Bisleri-1L,abc\n");
+
+        IOException e = assertThrows(IOException.class, () -> new ForecastCsvReader().read(csv));
+        assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+    }
+
+    private Path write(String content) throws IOException {
+        Path csv = tempDir.resolve("forecast.csv");
+        Files.writeString(csv, content, StandardCharsets.UTF_8);
+        return csv;
+    }
+}
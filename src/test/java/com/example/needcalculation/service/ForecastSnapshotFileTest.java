@@ -0,0 +1,73 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.model.ForecastIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the binary forecast snapshot format
+ */
+class ForecastSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ForecastIndex index = ForecastIndex.builder()
+            .add("January", "west", "Bisleri-1L", 50)
+            .add("January", "south", "Bisleri-1L", 70)
+            .add("February", "west", "Bisleri-10L", 20)
+            .build();
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path snapshot = tempDir.resolve("forecast.snapshot");
+        ForecastSnapshotFile.write(index, 42L, snapshot);
+
+        Optional<ForecastIndex> restored = ForecastSnapshotFile.read(snapshot, 42L);
+
+        assertTrue(restored.isPresent());
+        assertEquals(index.size(), restored.get().size());
+        assertEquals(index.getProducts(), restored.get().getProducts());
+        assertEquals(0, restored.get().countChangedCells(index));
+        assertEquals(ForecastIndex.NO_FORECAST, restored.get().baseNeed("Bisleri-10L", "January", "south"));
+    }
+
+    @Test
+    void testStaleSnapshotIsIgnored() throws IOException {
+        Path snapshot = tempDir.resolve("forecast.snapshot");
+        ForecastSnapshotFile.write(index, 42L, snapshot);
+
+        assertTrue(ForecastSnapshotFile.read(snapshot, 43L).isEmpty());
+    }
+
+    @Test
+    void testCorruptOrMissingSnapshotIsIgnored() throws IOException {
+        Path snapshot = tempDir.resolve("forecast.snapshot");
+        ForecastSnapshotFile.write(index, 42L, snapshot);
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(snapshot, bytes);
+
+        assertTrue(ForecastSnapshotFile.read(snapshot, 42L).isEmpty());
+        assertTrue(ForecastSnapshotFile.read(tempDir.resolve("missing.snapshot"), 42L).isEmpty());
+    }
+
+    @Test
+    void testChecksumChangesWithContent() throws IOException {
+        Path csv = tempDir.resolve("forecast.csv");
+        Files.writeString(csv, "month,region,product_name,base_need_xs\nJanuary,west,Bisleri-1L,50\n");
+        long original = ForecastSnapshotFile.checksum(csv);
+
+        Files.writeString(csv, "month,region,product_name,base_need_xs\nJanuary,west,Bisleri-1L,51\n");
+
+        assertNotEquals(original, ForecastSnapshotFile.checksum(csv));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.dto.NeedCalculationRequest;
+import com.example.needcalculation.dto.NeedCalculationResponse;
+import com.example.needcalculation.model.Store;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the in-flight coalescing of NeedCalculationResultCache
+ */
+class NeedCalculationResultCacheTest {
+
+    private static final int REQUESTS = 8;
+
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final ForecastSource forecastSource = mock(ForecastSource.class);
+    private final NeedCalculationMetrics metrics = new NeedCalculationMetrics(new SimpleMeterRegistry());
+    private final ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+
+    private final NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L",
+            List.of(new Store("str1", "south", null)), "May");
+
+    private NeedCalculationResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(forecastSource.getForecastVersion()).thenReturn(1L);
+        cache = new NeedCalculationResultCache(shardRouter, forecastSource, new StoreConfigurationService(),
+                new ObjectMapper(), metrics);
+        // Coalescing must work without the cache, e.g. for routed requests
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.initializeCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentIdenticalRequestsShareOneCalculation() throws Exception {
+        AtomicInteger calculations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(shardRouter.calculateNeeds(any(), anyBoolean())).thenAnswer(invocation -> {
+            calculations.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return new NeedCalculationResponse(List.of(Map.of("Bisleri-1L@str1",
+                    new NeedCalculationResponse.SkuNeed(100))), 1L);
+        });
+
+        List<Future<byte[]>> responses = submitAll();
+        awaitCoalesced(REQUESTS - 1);
+        release.countDown();
+
+        byte[] first = responses.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<byte[]> response : responses) {
+            assertSame(first, response.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calculations.get());
+        assertEquals(REQUESTS - 1, metrics.getCoalescedCount());
+        assertEquals(0, cache.getInFlightCount());
+    }
+
+    @Test
+    void testOnlyTheCalculatingRequestWritesTheCache() throws Exception {
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        cache.initializeCache();
+        AtomicInteger calculations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(shardRouter.calculateNeeds(any(), anyBoolean())).thenAnswer(invocation -> {
+            calculations.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return new NeedCalculationResponse(List.of(), 1L);
+        });
+
+        List<Future<byte[]>> responses = submitAll();
+        awaitCoalesced(REQUESTS - 1);
+        release.countDown();
+        for (Future<byte[]> response : responses) {
+            assertNotNull(response.get(10, TimeUnit.SECONDS));
+        }
+
+        // The result is cached once the calculation has left the in-flight map
+        assertEquals(0, cache.getInFlightCount());
+        assertEquals(1, cache.getEstimatedSize());
+        assertNotNull(cache.getOrCalculate(request, false));
+        assertEquals(1, calculations.get());
+        assertEquals(1, cache.getStats().hitCount());
+        assertEquals(REQUESTS, cache.getStats().missCount());
+    }
+
+    @Test
+    void testFailureIsPropagatedToWaitingRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(shardRouter.calculateNeeds(any(), anyBoolean())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            throw new IllegalStateException("forecast unavailable");
+        });
+
+        List<Future<byte[]>> responses = submitAll();
+        awaitCoalesced(REQUESTS - 1);
+        release.countDown();
+
+        for (Future<byte[]> response : responses) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> response.get(10, TimeUnit.SECONDS));
+            assertEquals("forecast unavailable", e.getCause().getMessage());
+        }
+        assertEquals(0, cache.getInFlightCount());
+    }
+
+    @Test
+    void testWaitingIsBounded() throws Exception {
+        ReflectionTestUtils.setField(cache, "coalesceMaxWaitMs", 50L);
+        AtomicInteger calculations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(shardRouter.calculateNeeds(any(), anyBoolean())).thenAnswer(invocation -> {
+            // Only the first calculation is slow
+            if (calculations.incrementAndGet() == 1) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return new NeedCalculationResponse(List.of(), 1L);
+        });
+
+        Future<byte[]> leader = executor.submit(() -> cache.getOrCalculate(request, false));
+        while (cache.getInFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertNotNull(cache.getOrCalculate(request, false));
+        assertEquals(1, metrics.getCoalesceTimeoutCount());
+        assertEquals(2, calculations.get());
+
+        release.countDown();
+        assertNotNull(leader.get(10, TimeUnit.SECONDS));
+    }
+
+    private List<Future<byte[]>> submitAll() {
+        List<Future<byte[]>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(() -> cache.getOrCalculate(request, false)));
+        }
+        return responses;
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        for (int attempt = 0; attempt < 1_000 && metrics.getCoalescedCount() < count; attempt++) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, metrics.getCoalescedCount());
+    }
+}
@@ -1,23 +1,30 @@
 package com.example.needcalculation.service;
 
+import com.example.needcalculation.dto.HorizonNeedCalculationRequest;
+import com.example.needcalculation.dto.HorizonNeedCalculationResponse;
 import com.example.needcalculation.dto.NeedCalculationRequest;
 import com.example.needcalculation.dto.NeedCalculationResponse;
-import com.example.needcalculation.entity.ForecastData;
 import com.example.needcalculation.enums.StoreSize;
+import com.example.needcalculation.model.ForecastIndex;
 import com.example.needcalculation.model.Store;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -34,20 +41,22 @@ class NeedCalculationServiceTest {
     @Mock
     private StoreConfigurationService storeConfigurationService;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private NeedCalculationMetrics metrics = new NeedCalculationMetrics(meterRegistry);
+
     @InjectMocks
     private NeedCalculationService needCalculationService;
 
-    private ForecastData sampleForecastData;
+    private ForecastIndex sampleForecastIndex;
 
     @BeforeEach
     void setUp() {
         // Create sample forecast data
-        sampleForecastData = new ForecastData();
-        sampleForecastData.setProductName("Bisleri-1L");
-        sampleForecastData.setMonth("December");
-        sampleForecastData.setRegion("extreme_north");
-        sampleForecastData.setBaseNeedXs(100);
-        sampleForecastData.setProductForecastKey("Bisleri-1L#December#extreme_north");
+        sampleForecastIndex = ForecastIndex.builder()
+                .add("December", "extreme_north", "Bisleri-1L", 100)
+                .build();
     }
 
     @Test
@@ -63,9 +72,8 @@ class NeedCalculationServiceTest {
         when(storeConfigurationService.getStoreSize("str1"))
                 .thenReturn(StoreSize.S); // Size S has factor 1.5
 
-        when(csvDataLoaderService.findByProductMonthAndRegion(
-                "Bisleri-1L", "December", "extreme_north"))
-                .thenReturn(Optional.of(sampleForecastData));
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(sampleForecastIndex);
 
         // Act
         NeedCalculationResponse response = needCalculationService.calculateNeeds(request);
@@ -82,6 +90,45 @@ class NeedCalculationServiceTest {
         assertEquals(150, firstSku.get("Bisleri-1L@str1").getNeed());
     }
 
+    @Test
+    void testCalculateForwardedNeeds_UsesForwardedStoreSize() {
+        // Arrange - the routing instance resolved str1 as XL, this shard does not know it
+        NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L",
+                List.of(new Store("str1", "extreme_north", "xl")), "December");
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(sampleForecastIndex);
+
+        // Act
+        NeedCalculationResponse response = needCalculationService.calculateForwardedNeeds(request);
+
+        // Assert - base need 100 * 5.0 (XL size factor) = 500
+        assertEquals(500, response.getNeedPerSKU().get(0).get("Bisleri-1L@str1").getNeed());
+        assertEquals(0, response.getDiagnostics().getFailedStoreCount());
+    }
+
+    @Test
+    void testStreamNeeds_WritesEachStoreBeforeCalculatingTheNext() throws Exception {
+        // Arrange
+        NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L", List.of(
+                new Store("str1", "extreme_north", null),
+                new Store("str2", "extreme_north", null)), "December");
+        List<String> events = new ArrayList<>();
+
+        when(storeConfigurationService.getStoreSize(anyString())).thenAnswer(invocation -> {
+            events.add("size " + invocation.getArgument(0));
+            return StoreSize.XS;
+        });
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(sampleForecastIndex);
+
+        // Act
+        needCalculationService.streamNeeds(request, (sku, need) -> events.add("write " + sku + "=" + need));
+
+        // Assert - below the parallel threshold the first SKU is written before the second store is resolved
+        assertEquals(List.of("size str1", "write Bisleri-1L@str1=100", "size str2", "write Bisleri-1L@str2=100"),
+                events);
+    }
+
     @Test
     void testCalculateNeeds_WithMultipleStores() {
         // Arrange
@@ -99,9 +146,8 @@ class NeedCalculationServiceTest {
         when(storeConfigurationService.getStoreSize("str2"))
                 .thenReturn(StoreSize.M); // Size M has factor 2.0
 
-        when(csvDataLoaderService.findByProductMonthAndRegion(
-                anyString(), anyString(), anyString()))
-                .thenReturn(Optional.of(sampleForecastData));
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(sampleForecastIndex);
 
         // Act
         NeedCalculationResponse response = needCalculationService.calculateNeeds(request);
@@ -137,9 +183,8 @@ class NeedCalculationServiceTest {
         when(storeConfigurationService.getStoreSize("str1"))
                 .thenReturn(StoreSize.S);
 
-        when(csvDataLoaderService.findByProductMonthAndRegion(
-                anyString(), anyString(), anyString()))
-                .thenReturn(Optional.empty());
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(sampleForecastIndex);
 
         // Act
         NeedCalculationResponse response = needCalculationService.calculateNeeds(request);
@@ -153,6 +198,7 @@ class NeedCalculationServiceTest {
 
         // Should return 0 when no forecast data found
         assertEquals(0, firstSku.get("Bisleri-1L@str1").getNeed());
+        assertEquals(1.0, meterRegistry.counter("need.calculation.forecast.misses").count());
     }
 
     @Test
@@ -164,9 +210,8 @@ class NeedCalculationServiceTest {
         request.setMonth("December");
         request.setStores(List.of(store));
 
-        when(csvDataLoaderService.findByProductMonthAndRegion(
-                anyString(), anyString(), anyString()))
-                .thenReturn(Optional.of(sampleForecastData));
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(sampleForecastIndex);
 
         // Test with XL size (factor 5.0)
         when(storeConfigurationService.getStoreSize("str1"))
@@ -195,9 +240,8 @@ class NeedCalculationServiceTest {
         when(storeConfigurationService.getStoreSize("str1"))
                 .thenReturn(StoreSize.S);
 
-        when(csvDataLoaderService.findByProductMonthAndRegion(
-                anyString(), anyString(), anyString()))
-                .thenReturn(Optional.of(sampleForecastData));
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(sampleForecastIndex);
 
         // Act
         NeedCalculationResponse response = needCalculationService.calculateNeeds(request);
@@ -207,4 +251,87 @@ class NeedCalculationServiceTest {
         assertEquals(1, response.getNeedPerSKU().size());
         // Should still calculate properly with current month
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCalculateNeeds_ParallelKeepsOrderAndZeroFallback() {
+        // Arrange - force the fork-join path for every request
+        ReflectionTestUtils.setField(needCalculationService, "parallelThreshold", 1);
+        ReflectionTestUtils.setField(needCalculationService, "parallelism", 4);
+        needCalculationService.initializeCalculationPool();
+
+        List<Store> stores = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            stores.add(new Store("str" + i, "extreme_north", null));
+        }
+
+        NeedCalculationRequest request = new NeedCalculationRequest();
+        request.setProductName("Bisleri-1L");
+        request.setMonth("December");
+        request.setStores(stores);
+
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(sampleForecastIndex);
+        when(storeConfigurationService.getStoreSize(anyString())).thenAnswer(invocation -> {
+            String storeName = invocation.getArgument(0);
+            if (storeName.equals("str1234")) {
+                throw new IllegalStateException("Store lookup failed");
+            }
+            return storeName.endsWith("0") ? StoreSize.XL : StoreSize.XS;
+        });
+
+        try {
+            // Act
+            NeedCalculationResponse response = needCalculationService.calculateNeeds(request);
+
+            // Assert - same order as the request, failed store falls back to zero
+            assertEquals(5000, response.getNeedPerSKU().size());
+            for (int i = 0; i < 5000; i++) {
+                String sku = "Bisleri-1L@str" + i;
+                int expected = i == 1234 ? 0 : (i % 10 == 0 ? 500 : 100);
+                assertEquals(expected, response.getNeedPerSKU().get(i).get(sku).getNeed(), sku);
+            }
+            assertEquals(1.0, meterRegistry.counter("need.calculation.store.failures").count());
+            assertEquals(5000.0, meterRegistry.summary("need.calculation.stores").totalAmount());
+        } finally {
+            needCalculationService.shutdownCalculationPool();
+        }
+    }
+
+    @Test
+    void testCalculateHorizonNeeds_MonthRangeAcrossYearEnd() {
+        // Arrange
+        ForecastIndex forecastIndex = ForecastIndex.builder()
+                .add("November", "extreme_north", "Bisleri-1L", 80)
+                .add("December", "extreme_north", "Bisleri-1L", 100)
+                .add("February", "extreme_north", "Bisleri-1L", 60)
+                .build();
+        HorizonNeedCalculationRequest request = new HorizonNeedCalculationRequest("Bisleri-1L",
+                List.of(new Store("str1", "extreme_north", null), new Store("str2", "unknown_region", null)),
+                null, "november", "February");
+
+        when(csvDataLoaderService.getForecastIndex(anyCollection(), anyCollection(), anyList()))
+                .thenReturn(forecastIndex);
+        when(storeConfigurationService.getStoreSize(anyString())).thenReturn(StoreSize.M);
+
+        // Act
+        HorizonNeedCalculationResponse response = needCalculationService.calculateHorizonNeeds(request);
+
+        // Assert - January has no forecast, the unknown region none at all
+        assertEquals(List.of("November", "December", "January", "February"), response.getMonths());
+        assertArrayEquals(new int[]{160, 200, 0, 120}, response.getNeedPerSKU().get(0).get("Bisleri-1L@str1"));
+        assertArrayEquals(new int[4], response.getNeedPerSKU().get(1).get("Bisleri-1L@str2"));
+        assertEquals(5.0, meterRegistry.counter("need.calculation.forecast.misses").count());
+    }
+
+    @Test
+    void testDetermineHorizonMonths_InvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> NeedCalculationService.determineHorizonMonths(
+                new HorizonNeedCalculationRequest("Bisleri-1L", List.of(), null, "March", null)));
+        assertThrows(IllegalArgumentException.class, () -> NeedCalculationService.determineHorizonMonths(
+                new HorizonNeedCalculationRequest("Bisleri-1L", List.of(), null, "March", "Smarch")));
+        assertThrows(IllegalArgumentException.class, () -> NeedCalculationService.determineHorizonMonths(
+                new HorizonNeedCalculationRequest("Bisleri-1L", List.of(), List.of("March", "Smarch"), null, null)));
+        assertEquals(List.of("May", "March"), NeedCalculationService.determineHorizonMonths(
+                new HorizonNeedCalculationRequest("Bisleri-1L", List.of(), List.of("may", "March", "MAY"), null, null)));
+    }
+}
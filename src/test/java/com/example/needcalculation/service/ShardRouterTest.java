@@ -0,0 +1,237 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.dto.BatchNeedCalculationRequest;
+import com.example.needcalculation.dto.BatchNeedCalculationResponse;
+import com.example.needcalculation.dto.CalculationDiagnostics;
+import com.example.needcalculation.dto.ColumnarNeedCalculationResponse;
+import com.example.needcalculation.dto.NeedCalculationRequest;
+import com.example.needcalculation.dto.NeedCalculationResponse;
+import com.example.needcalculation.enums.StoreSize;
+import com.example.needcalculation.exception.ShardUnavailableException;
+import com.example.needcalculation.model.Store;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ShardRouter, with the remote shards served from localhost
+ */
+class ShardRouterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<HttpServer> shards = new ArrayList<>();
+
+    private final List<NeedCalculationRequest> forwarded = new CopyOnWriteArrayList<>();
+
+    private final StoreConfigurationService storeConfigurationService = new StoreConfigurationService();
+
+    @AfterEach
+    void stopShards() {
+        shards.forEach(shard -> shard.stop(0));
+    }
+
+    @Test
+    void testFansOutByRegionAndMergesInRequestOrder() throws IOException {
+        // Arrange - north is local, south is a healthy shard, west a failing one
+        NeedCalculationService needCalculationService = mock(NeedCalculationService.class);
+        when(needCalculationService.calculateNeeds(any(), eq(true)))
+                .thenAnswer(invocation -> response(invocation.getArgument(0), 1, 0));
+
+        String south = startShard(200);
+        String west = startShard(500);
+        ShardRouter router = createRouter(needCalculationService,
+                List.of("south=" + south, "west=" + west + "/", "north=http://localhost:1"));
+
+        NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L", List.of(
+                new Store("n1", "north", null),
+                new Store("s1", "south", null),
+                new Store("w1", "west", null),
+                new Store("s2", "south", null),
+                new Store("n2", "north", null)), "May");
+
+        // Act
+        NeedCalculationResponse response = router.calculateNeeds(request, true);
+
+        // Assert
+        assertTrue(router.isRemote(request));
+        assertEquals(List.of("Bisleri-1L@n1=1", "Bisleri-1L@s1=7", "Bisleri-1L@w1=0",
+                "Bisleri-1L@s2=7", "Bisleri-1L@n2=1"), needs(response));
+        assertEquals(ForecastSource.UNVERSIONED, response.getForecastVersion());
+
+        CalculationDiagnostics diagnostics = response.getDiagnostics();
+        assertEquals(1, diagnostics.getFailedStoreCount());
+        assertEquals(List.of("w1"), diagnostics.getFailedStores());
+        assertEquals(1, diagnostics.getMissingForecastStores());
+        assertEquals(List.of("south"), diagnostics.getMissingRegions());
+        assertTrue(diagnostics.isProductFound());
+    }
+
+    @Test
+    void testForwardsStoreSizesResolvedByRouter() throws IOException {
+        NeedCalculationService needCalculationService = mock(NeedCalculationService.class);
+        storeConfigurationService.updateStoreConfiguration("s1", StoreSize.XL);
+        ShardRouter router = createRouter(needCalculationService, List.of("south=" + startShard(200)));
+
+        router.calculateNeeds(new NeedCalculationRequest("Bisleri-1L",
+                List.of(new Store("s1", "south", "xs")), "May"), true);
+
+        // The shard must not depend on its own copy of the store configuration
+        assertEquals(1, forwarded.size());
+        assertEquals("xl", forwarded.get(0).getStores().get(0).getStoreSize());
+    }
+
+    @Test
+    void testFailsWithoutDiagnosticsWhenShardFails() throws IOException {
+        NeedCalculationService needCalculationService = mock(NeedCalculationService.class);
+        when(needCalculationService.calculateNeeds(any(), eq(true)))
+                .thenAnswer(invocation -> response(invocation.getArgument(0), 1, 0));
+        ShardRouter router = createRouter(needCalculationService, List.of("west=" + startShard(500)));
+
+        NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L", List.of(
+                new Store("n1", "north", null),
+                new Store("w1", "west", null)), "May");
+
+        // Without diagnostics a need of zero for w1 could not be told apart from a real zero
+        assertThrows(ShardUnavailableException.class, () -> router.calculateNeeds(request, false));
+    }
+
+    @Test
+    void testLocalRequestsAreNotRouted() {
+        NeedCalculationService needCalculationService = mock(NeedCalculationService.class);
+        NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L",
+                List.of(new Store("n1", "north", null)), "May");
+        NeedCalculationResponse local = response(request, 1, 0);
+        when(needCalculationService.calculateNeeds(request, false)).thenReturn(local);
+
+        ShardRouter router = createRouter(needCalculationService, List.of("south=http://localhost:1"));
+
+        assertFalse(router.isRemote(request));
+        assertSame(local, router.calculateNeeds(request, false));
+    }
+
+    @Test
+    void testBatchIsRoutedPerProductAndMonth() throws IOException {
+        // Arrange - north is local with need 1, south a healthy shard with need 7
+        NeedCalculationService needCalculationService = mock(NeedCalculationService.class);
+        when(needCalculationService.calculateBatchNeeds(any())).thenAnswer(invocation -> {
+            BatchNeedCalculationRequest local = invocation.getArgument(0);
+            List<BatchNeedCalculationResponse.ProductNeeds> productNeeds = new ArrayList<>();
+            for (String productName : local.getProductNames()) {
+                for (String month : local.getMonths()) {
+                    int[] needs = new int[local.getStores().size()];
+                    Arrays.fill(needs, 1);
+                    productNeeds.add(new BatchNeedCalculationResponse.ProductNeeds(productName, month, needs));
+                }
+            }
+            return new BatchNeedCalculationResponse(List.of(), 3, productNeeds);
+        });
+        ShardRouter router = createRouter(needCalculationService, List.of("south=" + startShard(200)));
+
+        // Act
+        BatchNeedCalculationResponse response = router.calculateBatchNeeds(new BatchNeedCalculationRequest(
+                List.of("Bisleri-1L", "Bisleri-2L"),
+                List.of(new Store("s1", "south", null), new Store("n1", "north", null)),
+                List.of("may", "june")));
+
+        // Assert
+        assertEquals(List.of("s1", "n1"), response.getStoreNames());
+        assertEquals(ForecastSource.UNVERSIONED, response.getForecastVersion());
+        assertEquals(4, response.getProductNeeds().size());
+        for (BatchNeedCalculationResponse.ProductNeeds productNeeds : response.getProductNeeds()) {
+            assertArrayEquals(new int[]{7, 1}, productNeeds.getNeeds());
+        }
+        assertEquals("Bisleri-2L", response.getProductNeeds().get(3).getProductName());
+        assertEquals("June", response.getProductNeeds().get(3).getMonth());
+    }
+
+    @Test
+    void testColumnarFailsWhenShardFails() throws IOException {
+        NeedCalculationService needCalculationService = mock(NeedCalculationService.class);
+        when(needCalculationService.calculateColumnarNeeds(any())).thenAnswer(invocation -> {
+            NeedCalculationRequest local = invocation.getArgument(0);
+            return new ColumnarNeedCalculationResponse(local.getProductName(), local.getMonth(), 3,
+                    List.of(), new int[local.getStores().size()]);
+        });
+        ShardRouter router = createRouter(needCalculationService, List.of("west=" + startShard(500)));
+
+        NeedCalculationRequest request = new NeedCalculationRequest("Bisleri-1L", List.of(
+                new Store("n1", "north", null),
+                new Store("w1", "west", null)), "May");
+
+        // No diagnostics to list w1 as failed, so no need of zero either
+        assertThrows(ShardUnavailableException.class, () -> router.calculateColumnarNeeds(request));
+    }
+
+    private ShardRouter createRouter(NeedCalculationService needCalculationService, List<String> routes) {
+        CsvDataLoaderService csvDataLoaderService = mock(CsvDataLoaderService.class);
+        when(csvDataLoaderService.ownsRegion(anyString())).thenAnswer(invocation -> "north".equals(invocation.getArgument(0)));
+
+        ShardRouter router = new ShardRouter(needCalculationService, csvDataLoaderService,
+                storeConfigurationService, RestClient.builder());
+        ReflectionTestUtils.setField(router, "shardRoutes", routes);
+        ReflectionTestUtils.setField(router, "fanOutThreads", 2);
+        router.initializeRoutes();
+        return router;
+    }
+
+    /**
+     * Start a shard that answers need 7 and one missing forecast, or only the given error status
+     *
+     * @return Base URL of the shard
+     */
+    private String startShard(int status) throws IOException {
+        HttpServer shard = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        shard.createContext(ShardRouter.SHARD_CALCULATE_PATH, exchange -> {
+            NeedCalculationRequest piece = objectMapper.readValue(exchange.getRequestBody(), NeedCalculationRequest.class);
+            forwarded.add(piece);
+            byte[] body = status == 200 ? objectMapper.writeValueAsBytes(response(piece, 7, 1)) : new byte[0];
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        shard.start();
+        shards.add(shard);
+        return "http://localhost:" + shard.getAddress().getPort();
+    }
+
+    private static NeedCalculationResponse response(NeedCalculationRequest request, int need, int missing) {
+        List<Map<String, NeedCalculationResponse.SkuNeed>> needPerSKU = request.getStores().stream()
+                .map(store -> Map.of(request.getProductName() + "@" + store.getStoreName(),
+                        new NeedCalculationResponse.SkuNeed(need)))
+                .collect(Collectors.toList());
+        CalculationDiagnostics diagnostics = new CalculationDiagnostics(request.getProductName(), request.getMonth(),
+                true, true, missing, missing > 0 ? List.of(request.getStores().get(0).getRegion()) : List.of(),
+                0, List.of());
+        return new NeedCalculationResponse(needPerSKU, 3, diagnostics);
+    }
+
+    private static List<String> needs(NeedCalculationResponse response) {
+        return response.getNeedPerSKU().stream()
+                .flatMap(sku -> sku.entrySet().stream())
+                .map(entry -> entry.getKey() + "=" + entry.getValue().getNeed())
+                .toList();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.needcalculation.service;
+
+import com.example.needcalculation.enums.StoreSize;
+import com.example.needcalculation.model.Store;
+import com.example.needcalculation.model.StoreMasterRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StoreConfigurationService
+ */
+class StoreConfigurationServiceTest {
+
+    private StoreConfigurationService storeConfigurationService;
+
+    @BeforeEach
+    void setUp() {
+        storeConfigurationService = new StoreConfigurationService();
+        storeConfigurationService.initializeStoreConfigurations();
+    }
+
+    @Test
+    void testUnknownStoreSizeIsDeterministicAndNotStored() {
+        StoreSize first = storeConfigurationService.getStoreSize("unknown_store");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first, storeConfigurationService.getStoreSize("unknown_store"));
+        }
+        assertFalse(storeConfigurationService.getAllStoreConfigurations().containsKey("unknown_store"));
+    }
+
+    @Test
+    void testBulkLoadKeepsExistingStores() {
+        storeConfigurationService.loadStoreConfigurations(Map.of("str1", StoreSize.XL, "new_store", StoreSize.L));
+
+        assertEquals(StoreSize.XL, storeConfigurationService.getStoreSize("str1"));
+        assertEquals(StoreSize.L, storeConfigurationService.getStoreSize("new_store"));
+        assertEquals(StoreSize.M, storeConfigurationService.getStoreSize("str2"));
+        assertEquals(11, storeConfigurationService.getAllStoreConfigurations().size());
+    }
+
+    @Test
+    void testReplaceDropsPreviousStores() {
+        storeConfigurationService.replaceStoreConfigurations(Map.of("only_store", StoreSize.S));
+
+        assertEquals(Map.of("only_store", StoreSize.S), storeConfigurationService.getAllStoreConfigurations());
+    }
+
+    @Test
+    void testRegisteredStoresAreIndexedByRegion() {
+        storeConfigurationService.replaceStores(List.of(
+                new StoreMasterRecord("b_store", "north", "m"),
+                new StoreMasterRecord("a_store", "north", "xl"),
+                new StoreMasterRecord("c_store", "south", "xs")));
+
+        List<Store> north = storeConfigurationService.getRegisteredStores("north");
+        assertEquals(List.of("a_store", "b_store"), north.stream().map(Store::getStoreName).toList());
+        assertEquals("north", north.get(0).getRegion());
+        assertEquals(StoreSize.XL, storeConfigurationService.getStoreSize("a_store"));
+        assertEquals(3, storeConfigurationService.getRegisteredStores(null).size());
+        assertTrue(storeConfigurationService.getRegisteredStores("east").isEmpty());
+
+        // Moving a store to another region updates both regions
+        storeConfigurationService.registerStores(List.of(new StoreMasterRecord("b_store", "south", "m")));
+        assertEquals(1, storeConfigurationService.getRegisteredStores("north").size());
+        assertEquals(List.of("b_store", "c_store"), storeConfigurationService.getRegisteredStores("south")
+                .stream().map(Store::getStoreName).toList());
+    }
+
+    @Test
+    void testRegisterStoresRejectsInvalidSizeWithoutChanges() {
+        long version = storeConfigurationService.getVersion();
+
+        assertThrows(IllegalArgumentException.class, () -> storeConfigurationService.registerStores(List.of(
+                new StoreMasterRecord("new_store", "north", "m"),
+                new StoreMasterRecord("bad_store", "north", "huge"))));
+
+        assertEquals(version, storeConfigurationService.getVersion());
+        assertTrue(storeConfigurationService.getRegisteredStores("north").isEmpty());
+    }
+}